@@ -0,0 +1,21 @@
+package com.smartsubscription.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * HTTP 요청/응답용 Jackson 설정
+ * 데이터 파일과 같은 설정(storage.jackson.blackbird)으로 Spring 의 ObjectMapper 에도 Blackbird 를 등록한다.
+ */
+@Configuration
+public class JacksonConfig {
+    
+    @Bean
+    @ConditionalOnProperty(name = "storage.jackson.blackbird", havingValue = "true")
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
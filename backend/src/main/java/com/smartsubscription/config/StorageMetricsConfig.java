@@ -0,0 +1,30 @@
+package com.smartsubscription.config;
+
+import com.smartsubscription.service.GroupCommitWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 저장소 지표 등록 (/api/actuator/metrics/{이름} 으로 조회)
+ */
+@Configuration
+public class StorageMetricsConfig {
+    
+    @Bean
+    public MeterBinder storageWriteMetrics(GroupCommitWriter groupCommitWriter) {
+        return registry -> {
+            Gauge.builder("storage.write.queue.depth", groupCommitWriter, GroupCommitWriter::getQueueDepth)
+                .description("기록을 기다리는 파일 쓰기 요청 수")
+                .register(registry);
+            Gauge.builder("storage.write-behind.pending", groupCommitWriter, GroupCommitWriter::getDeferredPending)
+                .description("응답은 끝났지만 아직 디스크에 반영되지 않은 쓰기 요청 수")
+                .register(registry);
+            FunctionCounter.builder("storage.write-behind.rejected", groupCommitWriter, GroupCommitWriter::getRejectedWrites)
+                .description("대기열이 가득 차 503 으로 거절한 쓰기 요청 수")
+                .register(registry);
+        };
+    }
+}
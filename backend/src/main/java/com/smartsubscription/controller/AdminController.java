@@ -0,0 +1,96 @@
+package com.smartsubscription.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubscription.model.User;
+import com.smartsubscription.repository.SubscriptionRepository;
+import com.smartsubscription.repository.UserStore;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 관리자 API 컨트롤러
+ * admin.emails 에 등록된 이메일로 로그인한 사용자만 쓸 수 있다 (비어 있으면 모두 거부).
+ */
+@RestController
+@RequestMapping("/admin")
+@CrossOrigin(origins = {"http://localhost:8000", "http://localhost:8081", "http://127.0.0.1:5500"},
+             allowedHeaders = "*",
+             allowCredentials = "true")
+public class AdminController {
+    
+    private final SubscriptionRepository subscriptionRepository;
+    
+    private final UserStore userStore;
+    
+    // HTTP 응답용 ObjectMapper (Spring 설정)
+    private final ObjectMapper objectMapper;
+    
+    // 관리자 이메일 (normalizeEmail 기준)
+    private final Set<String> adminEmails;
+    
+    public AdminController(SubscriptionRepository subscriptionRepository, UserStore userStore, ObjectMapper objectMapper,
+                           @Value("${admin.emails:}") String adminEmails) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.userStore = userStore;
+        this.objectMapper = objectMapper;
+        this.adminEmails = Arrays.stream(adminEmails.split(","))
+            .map(UserStore::normalizeEmail)
+            .filter(email -> !email.isEmpty())
+            .collect(Collectors.toUnmodifiableSet());
+    }
+    
+    /**
+     * 세션 사용자가 관리자가 아니면 오류 응답, 관리자면 null
+     */
+    private ResponseEntity<Map<String, Object>> checkAdmin(HttpSession session) {
+        Object email = session != null ? session.getAttribute("userEmail") : null;
+        if (email == null) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "로그인이 필요합니다.");
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        }
+        if (!adminEmails.contains(UserStore.normalizeEmail(email.toString()))) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "관리자 권한이 필요합니다.");
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        }
+        return null;
+    }
+    
+    /**
+     * 전체 사용자의 구독 내보내기 (NDJSON, 구독 한 건이 한 줄)
+     * API 가 돌려주는 것과 같은 메모리 상주 목록(SubscriptionRepository)을 사용자 한 명씩 바로 응답에 쓰므로
+     * 기록 대기 중인 변경도 포함되며, 요청이 따로 두는 메모리는 사용자 목록과 NDJSON 생성기 버퍼뿐이다 (구독 목록은 복사하지 않음).
+     * 아직 읽지 않은 사용자는 이때 읽어 들인다 (이후 조회와 같이 메모리에 남음).
+     */
+    @GetMapping(value = "/subscriptions/export", produces = NdjsonStreams.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportSubscriptions(HttpSession session) {
+        ResponseEntity<Map<String, Object>> adminCheck = checkAdmin(session);
+        if (adminCheck != null) {
+            return NdjsonStreams.asJson(objectMapper, adminCheck);
+        }
+        
+        return ResponseEntity.ok()
+            .contentType(NdjsonStreams.MEDIA_TYPE)
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"subscriptions.ndjson\"")
+            .body(NdjsonStreams.body(objectMapper,
+                write -> {
+                    for (User user : userStore.readUsers()) {
+                        subscriptionRepository.forEachByUserId(user.getId(), write::accept);
+                    }
+                }));
+    }
+}
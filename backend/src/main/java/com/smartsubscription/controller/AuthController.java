@@ -1,14 +1,16 @@
 package com.smartsubscription.controller;
 
-import com.smartsubscription.service.JsonFileService;
+import com.smartsubscription.model.User;
+import com.smartsubscription.repository.UserStore;
+import com.smartsubscription.service.SnowflakeIdGenerator;
+import com.smartsubscription.service.StorageBusyException;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -22,10 +24,23 @@ import java.util.Map;
              allowCredentials = "true")
 public class AuthController {
     
-    private final JsonFileService jsonFileService;
+    private final UserStore userStore;
     
-    public AuthController(JsonFileService jsonFileService) {
-        this.jsonFileService = jsonFileService;
+    private final SnowflakeIdGenerator idGenerator;
+    
+    public AuthController(UserStore userStore, SnowflakeIdGenerator idGenerator) {
+        this.userStore = userStore;
+        this.idGenerator = idGenerator;
+    }
+    
+    /**
+     * 저장 대기열이 가득 찬 경우의 응답 (잠시 후 재시도)
+     */
+    private ResponseEntity<Map<String, Object>> storageBusy(StorageBusyException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
     }
     
     /**
@@ -59,33 +74,20 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // 기존 사용자 확인
-            List<Map<String, Object>> users = jsonFileService.readUsers();
-            if (users == null) {
-                users = new ArrayList<>();
-            }
+            // 새 사용자 생성 (앞뒤 공백은 빼고 저장, 대소문자는 입력 그대로 유지)
+            email = email.trim();
+            Long userId = idGenerator.nextId();
+            User newUser = new User(name, email, password); // 비밀번호는 실제로는 암호화해야 함
+            newUser.setId(userId);
+            newUser.setCreatedAt(java.time.LocalDateTime.now());
             
-            // 이메일 중복 확인
-            for (Map<String, Object> user : users) {
-                if (email.equals(user.get("email"))) {
-                    response.put("success", false);
-                    response.put("message", "이미 사용 중인 이메일입니다.");
-                    return ResponseEntity.badRequest().body(response);
-                }
+            // 이메일 중복 확인과 저장은 저장소에서 한 번에 처리
+            if (!userStore.insertUser(newUser)) {
+                response.put("success", false);
+                response.put("message", "이미 사용 중인 이메일입니다.");
+                return ResponseEntity.badRequest().body(response);
             }
             
-            // 새 사용자 생성
-            Long userId = System.currentTimeMillis(); // 간단한 ID 생성
-            Map<String, Object> newUser = new HashMap<>();
-            newUser.put("id", userId);
-            newUser.put("name", name);
-            newUser.put("email", email);
-            newUser.put("password", password); // 실제로는 암호화해야 함
-            newUser.put("createdAt", java.time.LocalDateTime.now().toString());
-            
-            users.add(newUser);
-            jsonFileService.saveUsers(users);
-            
             response.put("success", true);
             response.put("message", "회원가입이 완료되었습니다.");
             response.put("user", Map.of(
@@ -96,6 +98,8 @@ public class AuthController {
             
             return ResponseEntity.ok(response);
             
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
         } catch (Exception e) {
             response.put("success", false);
             response.put("message", "회원가입 중 오류가 발생했습니다: " + e.getMessage());
@@ -128,33 +132,20 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // 사용자 찾기
-            List<Map<String, Object>> users = jsonFileService.readUsers();
-            if (users == null) {
-                response.put("success", false);
-                response.put("message", "이메일 또는 비밀번호가 올바르지 않습니다.");
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
-            }
-            
-            Map<String, Object> foundUser = null;
-            for (Map<String, Object> user : users) {
-                if (email.equals(user.get("email")) && password.equals(user.get("password"))) {
-                    foundUser = user;
-                    break;
-                }
-            }
+            // 사용자 찾기 (저장소의 이메일 색인으로 바로 조회, 대소문자 구분 없음)
+            User foundUser = userStore.findUserByEmail(email);
             
-            if (foundUser == null) {
+            if (foundUser == null || !password.equals(foundUser.getPassword())) {
                 response.put("success", false);
                 response.put("message", "이메일 또는 비밀번호가 올바르지 않습니다.");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
             }
             
             // Session에 사용자 정보 저장
-            Long userId = ((Number) foundUser.get("id")).longValue();
+            Long userId = foundUser.getId();
             session.setAttribute("userId", userId);
-            session.setAttribute("userEmail", foundUser.get("email"));
-            session.setAttribute("userName", foundUser.get("name"));
+            session.setAttribute("userEmail", foundUser.getEmail());
+            session.setAttribute("userName", foundUser.getName());
             
             System.out.println("로그인 성공 - userId: " + userId + ", 세션 ID: " + session.getId());
             System.out.println("세션 속성 확인: userId=" + session.getAttribute("userId"));
@@ -163,8 +154,8 @@ public class AuthController {
             response.put("message", "로그인되었습니다.");
             response.put("user", Map.of(
                 "id", userId,
-                "name", foundUser.get("name"),
-                "email", foundUser.get("email")
+                "name", foundUser.getName(),
+                "email", foundUser.getEmail()
             ));
             response.put("sessionId", session.getId());
             
@@ -1,8 +1,8 @@
 package com.smartsubscription.controller;
 
+import com.smartsubscription.service.ExchangeRateService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -10,6 +10,7 @@ import java.util.Map;
 /**
  * 환율 API 프록시 컨트롤러
  * 외부 환율 API를 호출하여 CORS 문제를 해결
+ * 환율은 ExchangeRateService 가 메모리에 보관하므로 요청마다 외부 API 를 부르지 않음
  */
 @RestController
 @RequestMapping("/exchange-rates")
@@ -18,90 +19,32 @@ import java.util.Map;
              allowCredentials = "true")
 public class ExchangeRateController {
     
-    private final RestTemplate restTemplate;
+    private final ExchangeRateService exchangeRateService;
     
-    public ExchangeRateController() {
-        this.restTemplate = new RestTemplate();
+    public ExchangeRateController(ExchangeRateService exchangeRateService) {
+        this.exchangeRateService = exchangeRateService;
     }
     
     /**
      * 환율 정보 조회
-     * USD를 base로 하여 1 USD = X KRW 형식으로 반환
+     * USD를 base로 하여 1 USD = X KRW 형식으로 반환 (서버에 보관한 환율 스냅샷, 주기적으로 갱신)
+     * 응답 형식은 그대로 USD, KRW, EUR, JPY, CNY 다섯 통화만 돌려준다.
      */
     @GetMapping
-    @SuppressWarnings("unchecked")
     public ResponseEntity<Map<String, Object>> getExchangeRates() {
-        Map<String, Object> response = new HashMap<>();
+        ExchangeRateService.RateSnapshot snapshot = exchangeRateService.getSnapshot();
         
-        try {
-            // ExchangeRate-API 호출 (USD base)
-            String url = "https://api.exchangerate-api.com/v4/latest/USD";
-            Map<String, Object> apiResponse = restTemplate.getForObject(url, Map.class);
-            
-            if (apiResponse == null) {
-                throw new Exception("API 응답이 null입니다.");
-            }
-            
-            // 응답 데이터 가공
-            Object ratesObj = apiResponse.get("rates");
-            Map<String, Object> rates = null;
-            if (ratesObj instanceof Map) {
-                rates = (Map<String, Object>) ratesObj;
-            }
-            
-            Map<String, Double> processedRates = new HashMap<>();
-            processedRates.put("USD", 1.0);
-            processedRates.put("KRW", rates != null && rates.containsKey("KRW") ? 
-                getDoubleValue(rates.get("KRW"), 1350.0) : 1350.0);
-            processedRates.put("EUR", rates != null && rates.containsKey("EUR") ? 
-                getDoubleValue(rates.get("EUR"), 0.92) : 0.92);
-            processedRates.put("JPY", rates != null && rates.containsKey("JPY") ? 
-                getDoubleValue(rates.get("JPY"), 150.0) : 150.0);
-            processedRates.put("CNY", rates != null && rates.containsKey("CNY") ? 
-                getDoubleValue(rates.get("CNY"), 7.2) : 7.2);
-            
-            response.put("success", true);
-            response.put("base", "USD");
-            response.put("date", apiResponse.get("date"));
-            response.put("rates", processedRates);
-            response.put("source", "external_api");
-            
-            return ResponseEntity.ok(response);
-            
-        } catch (Exception e) {
-            // 폴백 데이터 반환
-            Map<String, Double> fallbackRates = new HashMap<>();
-            fallbackRates.put("USD", 1.0);
-            fallbackRates.put("KRW", 1350.0);
-            fallbackRates.put("EUR", 0.92);
-            fallbackRates.put("JPY", 150.0);
-            fallbackRates.put("CNY", 7.2);
-            
-            response.put("success", true);
-            response.put("base", "USD");
-            response.put("date", java.time.LocalDate.now().toString());
-            response.put("rates", fallbackRates);
-            response.put("source", "fallback");
-            
-            return ResponseEntity.ok(response);
-        }
-    }
-    
-    /**
-     * Object를 Double로 안전하게 변환
-     */
-    private Double getDoubleValue(Object value, Double defaultValue) {
-        if (value == null) {
-            return defaultValue;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).doubleValue();
-        }
-        try {
-            return Double.parseDouble(value.toString());
-        } catch (NumberFormatException e) {
-            return defaultValue;
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("base", ExchangeRateService.BASE);
+        response.put("date", snapshot.date());
+        Map<String, Double> rates = new HashMap<>();
+        for (String currency : ExchangeRateService.PUBLISHED_CURRENCIES) {
+            rates.put(currency, snapshot.rates().get(currency).doubleValue());
         }
+        response.put("rates", rates);
+        response.put("source", snapshot.source());
+        
+        return ResponseEntity.ok(response);
     }
 }
-
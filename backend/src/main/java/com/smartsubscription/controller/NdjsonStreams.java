@@ -0,0 +1,69 @@
+package com.smartsubscription.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * NDJSON (application/x-ndjson) 스트리밍 응답
+ * 
+ * 레코드를 한 줄에 하나씩 바로 응답 스트림에 쓰므로 응답 본문 전체를 메모리에 만들지 않는다.
+ * 첫 레코드는 바로 내보내고(flush), 이후에는 생성기 / 서블릿 버퍼가 찰 때마다 내보낸다.
+ */
+final class NdjsonStreams {
+    
+    static final String MEDIA_TYPE_VALUE = "application/x-ndjson";
+    
+    static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+    
+    private NdjsonStreams() {}
+    
+    /**
+     * source 가 넘기는 레코드를 한 줄씩 쓰는 본문 (source 는 응답을 쓰는 스레드에서 실행됨)
+     */
+    static StreamingResponseBody body(ObjectMapper objectMapper, Consumer<Consumer<Object>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                long[] written = new long[1];
+                source.accept(record -> {
+                    try {
+                        writer.writeValue(generator, record);
+                        generator.writeRaw('\n');
+                        if (++written[0] == 1) {
+                            generator.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+    
+    /**
+     * 스트리밍을 시작하기 전의 오류 응답은 NDJSON 을 요청했더라도 기존 JSON 형식 그대로 보냄
+     */
+    static ResponseEntity<StreamingResponseBody> asJson(ObjectMapper objectMapper, ResponseEntity<Map<String, Object>> response) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(response.getHeaders());
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        Map<String, Object> body = response.getBody();
+        return ResponseEntity.status(response.getStatusCode()).headers(headers)
+            .body(body != null ? outputStream -> objectMapper.writeValue(outputStream, body) : outputStream -> { });
+    }
+}
@@ -1,12 +1,43 @@
 package com.smartsubscription.controller;
 
-import com.smartsubscription.service.JsonFileService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionCategory;
+import com.smartsubscription.model.SubscriptionStatus;
+import com.smartsubscription.repository.SubscriptionAggregates;
+import com.smartsubscription.repository.SubscriptionPage;
+import com.smartsubscription.repository.SubscriptionQuery;
+import com.smartsubscription.repository.SubscriptionRepository;
+import com.smartsubscription.service.ExchangeRateService;
+import com.smartsubscription.service.JsonCodec;
+import com.smartsubscription.service.JsonMergePatch;
+import com.smartsubscription.service.PaymentSchedule;
+import com.smartsubscription.service.RankKeys;
+import com.smartsubscription.service.SnowflakeIdGenerator;
+import com.smartsubscription.service.StorageBusyException;
+import com.smartsubscription.service.SubscriptionEventHub;
+import com.smartsubscription.service.SubscriptionInsights;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 
 /**
  * 구독 관리 REST API 컨트롤러
@@ -18,10 +49,55 @@ import java.util.*;
              allowCredentials = "true")
 public class SubscriptionController {
     
-    private final JsonFileService jsonFileService;
+    // 배치 요청 한 번에 받을 수 있는 최대 작업 수
+    private static final int MAX_BATCH_OPERATIONS = 500;
     
-    public SubscriptionController(JsonFileService jsonFileService) {
-        this.jsonFileService = jsonFileService;
+    // 목록 페이지 크기 (기본 / 최대)
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    
+    // 다가오는 결제 조회 최대 기간 (일)
+    private static final int MAX_UPCOMING_DAYS = 366;
+    
+    // 기본값이 있어 PATCH 에서 null 로 지울 수 없는 필드 (지우면 읽을 때 기본값으로 돌아가므로 400)
+    private static final List<String> PATCH_DEFAULTED_FIELDS = List.of("currency", "status", "autoDetected");
+    
+    // 결제 달력 조회 최대 기간 (일, 약 10년)
+    private static final int MAX_CALENDAR_DAYS = 3660;
+    
+    // 결제 달력 한 번에 돌려주는 결제 예정일 수 (기본 / 최대, 넘으면 nextFrom 부터 이어서 조회)
+    private static final int DEFAULT_CALENDAR_LIMIT = 1000;
+    private static final int MAX_CALENDAR_LIMIT = 5000;
+    
+    // 분석 월별 추이 최대 기간 (개월)
+    private static final int MAX_ANALYTICS_MONTHS = 36;
+    
+    // 절약 기회 판단 기준 (원화 기준, 요청 통화로 환산해 씀): 고가 구독 월 금액, 제안할 최소 연간 절약액
+    private static final BigDecimal INSIGHT_EXPENSIVE_MONTHLY_KRW = new BigDecimal("15000");
+    private static final BigDecimal INSIGHT_MINIMUM_SAVINGS_KRW = new BigDecimal("5000");
+    
+    private final SubscriptionRepository subscriptionRepository;
+    
+    private final JsonCodec jsonCodec;
+    
+    private final SnowflakeIdGenerator idGenerator;
+    
+    private final SubscriptionEventHub eventHub;
+    
+    private final ExchangeRateService exchangeRateService;
+    
+    // HTTP 응답용 ObjectMapper (Spring 설정, NDJSON 스트림도 JSON 응답과 같은 형식으로 씀)
+    private final ObjectMapper objectMapper;
+    
+    public SubscriptionController(SubscriptionRepository subscriptionRepository, JsonCodec jsonCodec,
+                                  SnowflakeIdGenerator idGenerator, SubscriptionEventHub eventHub,
+                                  ExchangeRateService exchangeRateService, ObjectMapper objectMapper) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.jsonCodec = jsonCodec;
+        this.idGenerator = idGenerator;
+        this.eventHub = eventHub;
+        this.exchangeRateService = exchangeRateService;
+        this.objectMapper = objectMapper;
     }
     
     /**
@@ -64,10 +140,79 @@ public class SubscriptionController {
     }
     
     /**
-     * 구독 목록 조회
+     * 조회 응답의 ETag (사용자 데이터 버전 태그, 사용자의 구독이 바뀌면 달라짐)
+     */
+    private String etagOf(Long userId) {
+        return "\"" + subscriptionRepository.getUserVersionTag(userId) + "\"";
+    }
+    
+    /**
+     * NDJSON 목록 응답의 ETag (같은 URL 의 JSON 응답과 본문이 다르므로 태그도 구분)
+     */
+    private String ndjsonEtagOf(Long userId) {
+        return "\"" + subscriptionRepository.getUserVersionTag(userId) + "-ndjson\"";
+    }
+    
+    /**
+     * If-None-Match 가 현재 ETag 와 일치하는지 (여러 값, W/ 접두사, * 허용)
+     */
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * 304 응답 (본문을 만들지 않음)
+     */
+    private static ResponseEntity<Map<String, Object>> notModified(String etag) {
+        return withEtag(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+    }
+    
+    /**
+     * ETag 와 재검증 캐시 헤더 추가 (브라우저는 저장해 두고 매번 If-None-Match 로 확인)
+     * 목록은 같은 URL 에서 Accept 에 따라 JSON / NDJSON 으로 응답하므로 Vary: Accept 를 붙인다.
+     */
+    private static ResponseEntity.BodyBuilder withEtag(ResponseEntity.BodyBuilder builder, String etag) {
+        return builder.eTag(etag).varyBy(HttpHeaders.ACCEPT).cacheControl(CacheControl.noCache().cachePrivate());
+    }
+    
+    /**
+     * 저장 대기열이 가득 찬 경우의 응답 (잠시 후 재시도)
+     */
+    private ResponseEntity<Map<String, Object>> storageBusy(StorageBusyException e) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+    }
+    
+    /**
+     * 사용자의 구독 목록 조회
+     * 조건 파라미터가 하나라도 있으면 서버에서 걸러 정렬한 한 페이지를 돌려주고, 없으면 전체 목록을 돌려준다.
+     * status / category / currency 는 쉼표로 여러 값을 줄 수 있고, sort 앞에 - 를 붙이면 내림차순이다.
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getSubscriptions(HttpSession session) {
+    public ResponseEntity<Map<String, Object>> getSubscriptions(@RequestParam(value = "status", required = false) String status,
+                                                                @RequestParam(value = "category", required = false) String category,
+                                                                @RequestParam(value = "currency", required = false) String currency,
+                                                                @RequestParam(value = "minAmount", required = false) BigDecimal minAmount,
+                                                                @RequestParam(value = "maxAmount", required = false) BigDecimal maxAmount,
+                                                                @RequestParam(value = "sort", required = false) String sort,
+                                                                @RequestParam(value = "limit", required = false) Integer limit,
+                                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                HttpSession session) {
         ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
         if (authCheck != null) {
             System.out.println("구독 조회 실패: 인증되지 않음. 세션 ID: " + (session != null ? session.getId() : "null"));
@@ -75,21 +220,126 @@ public class SubscriptionController {
         }
         
         Long userId = getUserId(session);
-        List<Map<String, Object>> subscriptions = jsonFileService.readUserSubscriptions(userId);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("success", true);
-        response.put("subscriptions", subscriptions);
-        response.put("count", subscriptions.size());
+        // 목록을 읽기 전에 태그를 정해야 그 사이 변경이 있어도 다음 요청에서 다시 받음
+        String etag = etagOf(userId);
+        if (matchesEtag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
         
-        return ResponseEntity.ok(response);
+        boolean paged = status != null || category != null || currency != null || minAmount != null
+            || maxAmount != null || sort != null || limit != null || cursor != null;
+        if (!paged) {
+            List<Subscription> subscriptions = subscriptionRepository.findByUserId(userId);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("subscriptions", subscriptions);
+            response.put("count", subscriptions.size());
+            
+            return withEtag(ResponseEntity.ok(), etag).body(response);
+        }
+        
+        try {
+            SubscriptionQuery.Sort sortKey = SubscriptionQuery.Sort.ORDER;
+            boolean descending = false;
+            if (sort != null && !sort.isBlank()) {
+                String key = sort.trim();
+                descending = key.startsWith("-");
+                sortKey = SubscriptionQuery.Sort.fromParameter(descending ? key.substring(1) : key);
+                if (sortKey == null) {
+                    throw new IllegalArgumentException("지원하지 않는 정렬 기준입니다: " + sort);
+                }
+            }
+            int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+            if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+                throw new IllegalArgumentException("limit 은 1~" + MAX_PAGE_SIZE + " 사이여야 합니다.");
+            }
+            
+            SubscriptionQuery query = new SubscriptionQuery(
+                parseValues(status, value -> SubscriptionStatus.valueOf(value.toUpperCase(Locale.ROOT)), "상태"),
+                parseValues(category, value -> SubscriptionCategory.valueOf(value.toUpperCase(Locale.ROOT)), "카테고리"),
+                parseValues(currency, value -> value, "통화"),
+                minAmount, maxAmount, sortKey, descending, pageSize,
+                cursor != null && !cursor.isBlank() ? cursor.trim() : null);
+            SubscriptionPage page = subscriptionRepository.query(userId, query);
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("subscriptions", page.subscriptions());
+            response.put("count", page.subscriptions().size());
+            response.put("total", page.total());
+            response.put("nextCursor", page.nextCursor());
+            
+            return withEtag(ResponseEntity.ok(), etag).body(response);
+        
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+    
+    /**
+     * 사용자의 구독 목록 조회 (Accept: application/x-ndjson)
+     * 구독 한 건을 한 줄로 바로 응답 스트림에 쓰므로 목록이 커도 첫 바이트 시간과 메모리 사용량이 늘지 않는다.
+     * 전체 목록만 지원하며, 조건 조회 / 페이지는 JSON 모드를 쓴다.
+     */
+    @GetMapping(produces = NdjsonStreams.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSubscriptions(@RequestParam Map<String, String> parameters,
+                                                 @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                 HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return NdjsonStreams.asJson(objectMapper, authCheck);
+        }
+        
+        if (!parameters.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "NDJSON 응답은 전체 목록만 지원합니다. 조건 조회는 JSON 으로 요청하세요.");
+            return NdjsonStreams.asJson(objectMapper, ResponseEntity.badRequest().body(response));
+        }
+        
+        Long userId = getUserId(session);
+        String etag = ndjsonEtagOf(userId);
+        if (matchesEtag(ifNoneMatch, etag)) {
+            return withEtag(ResponseEntity.status(HttpStatus.NOT_MODIFIED), etag).build();
+        }
+        
+        return withEtag(ResponseEntity.ok(), etag)
+            .contentType(NdjsonStreams.MEDIA_TYPE)
+            .body(NdjsonStreams.body(objectMapper,
+                write -> subscriptionRepository.forEachByUserId(userId, write::accept)));
+    }
+    
+    /**
+     * 쉼표로 구분한 조회 조건 값 (비어 있으면 null)
+     */
+    private static <T> Set<T> parseValues(String values, Function<String, T> parser, String label) {
+        if (values == null || values.isBlank()) {
+            return null;
+        }
+        Set<T> result = new LinkedHashSet<>();
+        for (String value : values.split(",")) {
+            if (value.isBlank()) {
+                continue;
+            }
+            try {
+                result.add(parser.apply(value.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("지원하지 않는 " + label + " 값입니다: " + value.trim());
+            }
+        }
+        return result;
     }
     
     /**
      * 구독 추가
      */
     @PostMapping
-    public ResponseEntity<Map<String, Object>> addSubscription(@RequestBody Map<String, Object> request,
+    public ResponseEntity<Map<String, Object>> addSubscription(@RequestBody JsonNode request,
                                                                HttpSession session) {
         ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
         if (authCheck != null) {
@@ -98,9 +348,14 @@ public class SubscriptionController {
         
         Long userId = getUserId(session);
         
+        // 같은 사용자의 읽기-수정-저장이 서로의 변경을 덮어쓰지 않도록 사용자 락 안에서 처리
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
         try {
+            Subscription newSubscription = jsonCodec.subscriptionReader().readValue(request);
+            
             // 필수 필드 검증
-            String name = (String) request.get("name");
+            String name = newSubscription.getName();
             if (name == null || name.trim().isEmpty()) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
@@ -108,43 +363,231 @@ public class SubscriptionController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // 새 구독 생성
-            Long subscriptionId = System.currentTimeMillis();
-            Map<String, Object> newSubscription = new HashMap<>(request);
-            newSubscription.put("id", subscriptionId);
-            newSubscription.put("userId", userId);
-            newSubscription.put("createdAt", java.time.LocalDateTime.now().toString());
+            prepareNewSubscription(newSubscription, userId);
+            newSubscription = subscriptionRepository.save(newSubscription);
+            eventHub.publish(userId, "add", Map.of("subscription", newSubscription));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "구독이 추가되었습니다.");
+            response.put("subscription", newSubscription);
+            
+            return ResponseEntity.ok(response);
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "구독 추가 중 오류가 발생했습니다: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 새 구독의 ID, 소유자, 생성 시각과 기본값 설정
+     */
+    private void prepareNewSubscription(Subscription subscription, Long userId) {
+        subscription.setId(idGenerator.nextId());
+        subscription.setUserId(userId);
+        subscription.setVersion(null);
+        subscription.setRank(null); // 순서 키가 없으면 목록 맨 뒤에 놓임
+        subscription.setCreatedAt(java.time.LocalDateTime.now());
+        
+        // 기본값 설정
+        if (subscription.getStatus() == null) {
+            subscription.setStatus(SubscriptionStatus.ACTIVE);
+        }
+        if (subscription.getCurrency() == null) {
+            subscription.setCurrency("KRW");
+        }
+    }
+    
+    /**
+     * 구독 일괄 처리 (추가 / 수정 / 삭제)
+     * 요청: {"operations": [{"op": "create", "subscription": {..}},
+     *                      {"op": "update", "id": N, "version": V, "subscription": {..}},
+     *                      {"op": "delete", "id": N}]} (operations 배열만 보내도 됨)
+     * 모든 작업을 순서대로 검증한 뒤 하나라도 실패하면 아무것도 반영하지 않고,
+     * 모두 통과하면 한 번의 저장으로 함께 반영한다. 응답의 results 는 작업 순서대로의 결과이다.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> batchSubscriptions(@RequestBody JsonNode request,
+                                                                  HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        JsonNode operations = request.isArray() ? request : request.get("operations");
+        if (operations == null || !operations.isArray() || operations.isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "operations 배열이 필요합니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        if (operations.size() > MAX_BATCH_OPERATIONS) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "한 번에 최대 " + MAX_BATCH_OPERATIONS + "건까지 처리할 수 있습니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Long userId = getUserId(session);
+        
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
+        try {
+            // 현재 목록 위에 작업을 순서대로 적용해 보며 검증 (저장은 모두 통과한 뒤 한 번만)
+            Map<Long, Subscription> working = new LinkedHashMap<>();
+            for (Subscription subscription : subscriptionRepository.findByUserId(userId)) {
+                working.put(subscription.getId(), subscription);
+            }
+            Set<Long> existingIds = new HashSet<>(working.keySet());
+            Set<Long> touchedIds = new LinkedHashSet<>();
             
-            // 기본값 설정
-            if (!newSubscription.containsKey("status")) {
-                newSubscription.put("status", "active");
+            List<Map<String, Object>> results = new ArrayList<>();
+            int failed = 0;
+            boolean conflict = false;
+            for (int i = 0; i < operations.size(); i++) {
+                JsonNode operation = operations.get(i);
+                String op = operation.path("op").asText("");
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("index", i);
+                result.put("op", op);
+                results.add(result);
+                
+                String error = null;
+                try {
+                    JsonNode body = operation.get("subscription");
+                    Long id = operation.path("id").canConvertToLong() ? operation.path("id").asLong() : null;
+                    switch (op) {
+                        case "create" -> {
+                            if (body == null || !body.isObject()) {
+                                error = "subscription 이 필요합니다.";
+                                break;
+                            }
+                            Subscription created = jsonCodec.subscriptionReader().readValue(body);
+                            if (created.getName() == null || created.getName().trim().isEmpty()) {
+                                error = "서비스명을 입력해주세요.";
+                                break;
+                            }
+                            prepareNewSubscription(created, userId);
+                            working.put(created.getId(), created);
+                            touchedIds.add(created.getId());
+                            result.put("id", created.getId());
+                        }
+                        case "update" -> {
+                            Subscription found = id != null ? working.get(id) : null;
+                            if (found == null) {
+                                error = "구독을 찾을 수 없습니다.";
+                                break;
+                            }
+                            if (body == null || !body.isObject()) {
+                                error = "subscription 이 필요합니다.";
+                                break;
+                            }
+                            JsonNode expected = operation.has("version") ? operation.get("version") : body.get("version");
+                            if (expected != null && !expected.isNull()
+                                    && expected.asLong() != SubscriptionRepository.versionOf(found)) {
+                                error = "다른 곳에서 먼저 수정된 구독입니다.";
+                                conflict = true;
+                                result.put("subscription", found);
+                                break;
+                            }
+                            Subscription updated = jsonCodec.subscriptionReader().withValueToUpdate(found.copy()).readValue(body);
+                            updated.setRank(found.getRank());
+                            updated.setUpdatedAt(java.time.LocalDateTime.now());
+                            updated.setId(id);
+                            updated.setUserId(userId);
+                            working.put(id, updated);
+                            touchedIds.add(id);
+                            result.put("id", id);
+                        }
+                        case "delete" -> {
+                            if (id == null || working.remove(id) == null) {
+                                error = "구독을 찾을 수 없습니다.";
+                                break;
+                            }
+                            touchedIds.remove(id);
+                            result.put("id", id);
+                        }
+                        default -> error = "알 수 없는 작업입니다: " + op;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    error = "잘못된 구독 데이터입니다: " + e.getMessage();
+                }
+                
+                result.put("success", error == null);
+                if (error != null) {
+                    result.put("message", error);
+                    failed++;
+                }
             }
-            if (!newSubscription.containsKey("currency")) {
-                newSubscription.put("currency", "KRW");
+            
+            if (failed > 0) {
+                // 반영하지 않으므로 새로 발급한 ID 는 알려주지 않음
+                for (Map<String, Object> result : results) {
+                    if ("create".equals(result.get("op"))) {
+                        result.remove("id");
+                    }
+                }
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", failed + "건의 작업에 오류가 있어 아무것도 반영하지 않았습니다.");
+                response.put("results", results);
+                return ResponseEntity.status(conflict ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST).body(response);
             }
             
-            // 기존 구독 목록 가져오기
-            List<Map<String, Object>> userSubscriptions = jsonFileService.readUserSubscriptions(userId);
-            if (userSubscriptions == null) {
-                userSubscriptions = new ArrayList<>();
+            // 한 번에 저장: 추가/수정된 레코드는 최종 상태만, 원래 있던 레코드 중 사라진 것은 삭제
+            List<Subscription> upserts = new ArrayList<>();
+            for (Long id : touchedIds) {
+                upserts.add(working.get(id));
+            }
+            List<Long> deletedIds = new ArrayList<>();
+            for (Long id : existingIds) {
+                if (!working.containsKey(id)) {
+                    deletedIds.add(id);
+                }
+            }
+            Map<Long, Subscription> saved = new LinkedHashMap<>();
+            for (Subscription subscription : subscriptionRepository.saveChanges(userId, upserts, deletedIds)) {
+                saved.put(subscription.getId(), subscription);
             }
             
-            // 새 구독 추가
-            userSubscriptions.add(newSubscription);
-            jsonFileService.saveUserSubscriptions(userId, userSubscriptions);
+            for (Map<String, Object> result : results) {
+                Subscription subscription = saved.get((Long) result.get("id"));
+                if (subscription != null) {
+                    result.put("subscription", subscription);
+                }
+            }
+            for (Subscription subscription : saved.values()) {
+                eventHub.publish(userId, existingIds.contains(subscription.getId()) ? "update" : "add",
+                    Map.of("subscription", subscription));
+            }
+            for (Long id : deletedIds) {
+                eventHub.publish(userId, "delete", Map.of("id", id));
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "구독이 추가되었습니다.");
-            response.put("subscription", newSubscription);
+            response.put("message", operations.size() + "건의 작업을 반영했습니다.");
+            response.put("results", results);
+            response.put("count", results.size());
             
             return ResponseEntity.ok(response);
-            
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("message", "구독 추가 중 오류가 발생했습니다: " + e.getMessage());
+            response.put("message", "일괄 처리 중 오류가 발생했습니다: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -153,7 +596,7 @@ public class SubscriptionController {
      */
     @PutMapping("/{id}")
     public ResponseEntity<Map<String, Object>> updateSubscription(@PathVariable("id") Long subscriptionId,
-                                                                  @RequestBody Map<String, Object> request,
+                                                                  @RequestBody JsonNode request,
                                                                   HttpSession session) {
         ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
         if (authCheck != null) {
@@ -162,32 +605,97 @@ public class SubscriptionController {
         
         Long userId = getUserId(session);
         
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
         try {
-            List<Map<String, Object>> userSubscriptions = jsonFileService.readUserSubscriptions(userId);
-            if (userSubscriptions == null) {
+            // 구독 찾기
+            Subscription foundSubscription = subscriptionRepository.findById(userId, subscriptionId);
+            if (foundSubscription == null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
                 response.put("message", "구독을 찾을 수 없습니다.");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
             
-            // 구독 찾기
-            Map<String, Object> foundSubscription = null;
-            int index = -1;
-            for (int i = 0; i < userSubscriptions.size(); i++) {
-                Map<String, Object> sub = userSubscriptions.get(i);
-                Object idObj = sub.get("id");
-                long subId = idObj instanceof Number 
-                    ? ((Number) idObj).longValue() 
-                    : Long.parseLong(idObj.toString());
-                
-                if (subId == subscriptionId) {
-                    foundSubscription = sub;
-                    index = i;
-                    break;
+            // 낙관적 동시성 제어: 요청에 버전이 있으면 현재 버전과 일치해야 함
+            JsonNode requestVersion = request.get("version");
+            if (requestVersion != null && !requestVersion.isNull()) {
+                long expectedVersion = requestVersion.asLong();
+                if (expectedVersion != SubscriptionRepository.versionOf(foundSubscription)) {
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", false);
+                    response.put("message", "다른 곳에서 먼저 수정된 구독입니다. 새로고침 후 다시 시도해주세요.");
+                    response.put("subscription", foundSubscription);
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
                 }
             }
             
+            // 업데이트: 요청에 있는 필드만 기존 값 위에 덮어씀 (버전은 저장소에서, 순서 키는 순서 API 에서 관리)
+            String rank = foundSubscription.getRank();
+            foundSubscription = jsonCodec.subscriptionReader().withValueToUpdate(foundSubscription).readValue(request);
+            foundSubscription.setRank(rank);
+            foundSubscription.setUpdatedAt(java.time.LocalDateTime.now());
+            foundSubscription.setId(subscriptionId); // ID는 변경하지 않음
+            foundSubscription.setUserId(userId); // userId는 변경하지 않음
+            
+            foundSubscription = subscriptionRepository.save(foundSubscription);
+            eventHub.publish(userId, "update", Map.of("subscription", foundSubscription));
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "구독이 수정되었습니다.");
+            response.put("subscription", foundSubscription);
+            
+            return ResponseEntity.ok(response);
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "구독 수정 중 오류가 발생했습니다: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 구독 부분 수정 (JSON Merge Patch, RFC 7386)
+     * 요청에 있는 필드만 바꾸고 값이 null 인 필드는 지운다. version 은 기대하는 현재 버전으로 쓰인다.
+     * 기본값이 있는 필드(currency, status, autoDetected)는 지우면 기본값으로 돌아가므로 null 을 보내면 400 으로 거절한다.
+     */
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<Map<String, Object>> patchSubscription(@PathVariable("id") Long subscriptionId,
+                                                                 @RequestBody JsonNode patch,
+                                                                 HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        if (patch == null || !patch.isObject()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "수정할 필드를 객체로 보내주세요.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        for (String field : PATCH_DEFAULTED_FIELDS) {
+            if (patch.has(field) && patch.get(field).isNull()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", field + " 은(는) 기본값이 있는 필드라 null 로 지울 수 없습니다. 값을 보내주세요.");
+                return ResponseEntity.badRequest().body(response);
+            }
+        }
+        
+        Long userId = getUserId(session);
+        
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
+        try {
+            Subscription foundSubscription = subscriptionRepository.findById(userId, subscriptionId);
             if (foundSubscription == null) {
                 Map<String, Object> response = new HashMap<>();
                 response.put("success", false);
@@ -195,27 +703,65 @@ public class SubscriptionController {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
             
-            // 업데이트
-            foundSubscription.putAll(request);
-            foundSubscription.put("updatedAt", java.time.LocalDateTime.now().toString());
-            foundSubscription.put("id", subscriptionId); // ID는 변경하지 않음
-            foundSubscription.put("userId", userId); // userId는 변경하지 않음
+            JsonNode requestVersion = patch.get("version");
+            if (requestVersion != null && !requestVersion.isNull()
+                    && requestVersion.asLong() != SubscriptionRepository.versionOf(foundSubscription)) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "다른 곳에서 먼저 수정된 구독입니다. 새로고침 후 다시 시도해주세요.");
+                response.put("subscription", foundSubscription);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            
+            JsonNode current = jsonCodec.getObjectMapper().valueToTree(foundSubscription);
+            Subscription patched = jsonCodec.subscriptionReader().readValue(JsonMergePatch.apply(current, patch));
+            
+            // 식별/관리 필드와 순서 키는 패치로 바꿀 수 없음
+            patched.setId(subscriptionId);
+            patched.setUserId(userId);
+            patched.setVersion(foundSubscription.getVersion());
+            patched.setRank(foundSubscription.getRank());
+            patched.setCreatedAt(foundSubscription.getCreatedAt());
+            patched.setUpdatedAt(foundSubscription.getUpdatedAt());
             
-            userSubscriptions.set(index, foundSubscription);
-            jsonFileService.saveUserSubscriptions(userId, userSubscriptions);
+            if (patched.getName() == null || patched.getName().trim().isEmpty()) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "서비스명을 입력해주세요.");
+                return ResponseEntity.badRequest().body(response);
+            }
             
+            // 실제로 바뀐 필드가 없으면 저장하지 않음
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
-            response.put("message", "구독이 수정되었습니다.");
-            response.put("subscription", foundSubscription);
+            if (current.equals(jsonCodec.getObjectMapper().valueToTree(patched))) {
+                response.put("message", "변경된 내용이 없습니다.");
+                response.put("subscription", foundSubscription);
+                return ResponseEntity.ok(response);
+            }
             
-            return ResponseEntity.ok(response);
+            patched.setUpdatedAt(java.time.LocalDateTime.now());
+            patched = subscriptionRepository.save(patched);
+            eventHub.publish(userId, "update", Map.of("subscription", patched));
             
+            response.put("message", "구독이 수정되었습니다.");
+            response.put("subscription", patched);
+            return ResponseEntity.ok(response);
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
+        } catch (IOException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "수정할 값의 형식이 올바르지 않습니다: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("message", "구독 수정 중 오류가 발생했습니다: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -232,23 +778,11 @@ public class SubscriptionController {
         
         Long userId = getUserId(session);
         
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
         try {
-            List<Map<String, Object>> userSubscriptions = jsonFileService.readUserSubscriptions(userId);
-            if (userSubscriptions == null) {
-                Map<String, Object> response = new HashMap<>();
-                response.put("success", false);
-                response.put("message", "구독을 찾을 수 없습니다.");
-                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
-            }
-            
             // 구독 찾기 및 삭제
-            boolean removed = userSubscriptions.removeIf(sub -> {
-                Object idObj = sub.get("id");
-                long subId = idObj instanceof Number 
-                    ? ((Number) idObj).longValue() 
-                    : Long.parseLong(idObj.toString());
-                return subId == subscriptionId;
-            });
+            boolean removed = subscriptionRepository.delete(userId, subscriptionId);
             
             if (!removed) {
                 Map<String, Object> response = new HashMap<>();
@@ -256,62 +790,395 @@ public class SubscriptionController {
                 response.put("message", "구독을 찾을 수 없습니다.");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
             }
+            eventHub.publish(userId, "delete", Map.of("id", subscriptionId));
             
             // 또는 상태만 변경 (취소 처리)
-            // Map<String, Object> foundSubscription = ...;
-            // foundSubscription.put("status", "cancelled");
-            // foundSubscription.put("updatedAt", java.time.LocalDateTime.now().toString());
-            
-            jsonFileService.saveUserSubscriptions(userId, userSubscriptions);
+            // Subscription foundSubscription = ...;
+            // foundSubscription.setStatus(SubscriptionStatus.CANCELLED);
+            // foundSubscription.setUpdatedAt(java.time.LocalDateTime.now());
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "구독이 삭제되었습니다.");
             
             return ResponseEntity.ok(response);
-            
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("message", "구독 삭제 중 오류가 발생했습니다: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
         }
     }
     
     /**
-     * 특정 구독 조회
+     * 구독 변경 스트림 (SSE: add / update / delete / reorder, 재연결 시 Last-Event-ID 이후만 전송)
+     * EventSource 는 재연결할 때 Last-Event-ID 헤더를 자동으로 붙이며, 새로 연결할 때는 lastEventId 파라미터로 넘길 수 있다.
      */
-    @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getSubscription(@PathVariable("id") Long subscriptionId,
-                                                               HttpSession session) {
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamSubscriptions(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                                          @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+                                                          HttpSession session) {
+        if (checkAuth(session) != null) {
+            // EventSource 는 200 이 아닌 응답을 받으면 다시 연결하지 않음
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        
+        Long lastEventId = null;
+        String lastEventIdValue = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        if (lastEventIdValue != null && !lastEventIdValue.isBlank()) {
+            try {
+                lastEventId = Long.parseLong(lastEventIdValue.trim());
+            } catch (NumberFormatException e) {
+                // 알 수 없는 ID 는 처음 연결한 것으로 처리
+            }
+        }
+        
+        return ResponseEntity.ok(eventHub.subscribe(getUserId(session), lastEventId));
+    }
+    
+    /**
+     * 다가오는 결제 조회 (오늘부터 days 일 뒤까지 결제 예정인 활성 구독, 결제일 순)
+     */
+    @GetMapping("/upcoming")
+    public ResponseEntity<Map<String, Object>> getUpcomingPayments(@RequestParam(value = "days", defaultValue = "7") int days,
+                                                                   HttpSession session) {
         ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
         if (authCheck != null) {
             return authCheck;
         }
         
+        if (days < 0 || days > MAX_UPCOMING_DAYS) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "조회 기간은 0~" + MAX_UPCOMING_DAYS + "일 사이여야 합니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
         Long userId = getUserId(session);
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(days);
         
-        List<Map<String, Object>> userSubscriptions = jsonFileService.readUserSubscriptions(userId);
-        if (userSubscriptions == null) {
+        List<Subscription> upcoming = new ArrayList<>();
+        for (Subscription subscription : subscriptionRepository.findUpcoming(userId, from, to)) {
+            if (subscription.getStatus() == SubscriptionStatus.ACTIVE) {
+                upcoming.add(subscription);
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("subscriptions", upcoming);
+        response.put("count", upcoming.size());
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 결제 달력 ([from, to) 기간의 결제 예정일, 날짜 순)
+     * 구독마다 결제 주기로 결제일을 필요한 만큼만 전개해 합치므로 여러 해를 조회해도 기간 전체를 미리 만들지 않는다.
+     * 기본 기간은 오늘부터 한 달이며, convertedTotal 은 totals 를 currency (기본: 기준 통화)로 환산한 합계이다.
+     * 한 번에 limit 건까지 돌려주고 (같은 날짜의 결제는 나누지 않음) 남은 결제가 있으면 nextFrom 에 다음 조회 시작일을 넣는다.
+     * 이때 totals 는 [from, nextFrom) 기간의 합계이다.
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<Map<String, Object>> getPaymentCalendar(@RequestParam(value = "from", required = false) String fromParam,
+                                                                  @RequestParam(value = "to", required = false) String toParam,
+                                                                  @RequestParam(value = "currency", required = false) String currencyParam,
+                                                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                                                  HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = fromParam != null && !fromParam.isBlank() ? LocalDate.parse(fromParam.trim()) : LocalDate.now();
+            to = toParam != null && !toParam.isBlank() ? LocalDate.parse(toParam.trim()) : from.plusMonths(1);
+        } catch (DateTimeParseException e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
-            response.put("message", "구독을 찾을 수 없습니다.");
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            response.put("message", "날짜는 YYYY-MM-DD 형식이어야 합니다.");
+            return ResponseEntity.badRequest().body(response);
         }
         
-        Map<String, Object> foundSubscription = null;
-        for (Map<String, Object> sub : userSubscriptions) {
-            Object idObj = sub.get("id");
-            long subId = idObj instanceof Number 
-                ? ((Number) idObj).longValue() 
-                : Long.parseLong(idObj.toString());
-            
-            if (subId == subscriptionId) {
-                foundSubscription = sub;
+        if (!from.isBefore(to) || ChronoUnit.DAYS.between(from, to) > MAX_CALENDAR_DAYS) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "조회 기간은 1~" + MAX_CALENDAR_DAYS + "일 사이여야 합니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        int maxOccurrences = limit != null ? limit : DEFAULT_CALENDAR_LIMIT;
+        if (maxOccurrences < 1 || maxOccurrences > MAX_CALENDAR_LIMIT) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "limit 은 1~" + MAX_CALENDAR_LIMIT + " 사이여야 합니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        String currency = exchangeRateService.normalize(currencyParam);
+        ExchangeRateService.RateSnapshot rates = exchangeRateService.getSnapshot();
+        if (!rates.supports(currency)) {
+            return unsupportedCurrency(currency);
+        }
+        
+        Long userId = getUserId(session);
+        List<Map<String, Object>> occurrences = new ArrayList<>();
+        Map<String, BigDecimal> totals = new TreeMap<>();
+        LocalDate lastDate = null;
+        LocalDate nextFrom = null;
+        Iterator<PaymentSchedule.Occurrence> schedule =
+            PaymentSchedule.merge(subscriptionRepository.findByUserIdInDisplayOrder(userId), from, to);
+        while (schedule.hasNext()) {
+            PaymentSchedule.Occurrence occurrence = schedule.next();
+            // 한도를 채운 뒤에는 마지막 날짜의 나머지 결제까지만 담고 멈춤 (하루 결제 수는 구독 수 이하)
+            if (occurrences.size() >= maxOccurrences && !occurrence.date().equals(lastDate)) {
+                nextFrom = occurrence.date();
                 break;
             }
+            lastDate = occurrence.date();
+            Subscription subscription = occurrence.subscription();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("date", occurrence.date().toString());
+            entry.put("id", subscription.getId());
+            entry.put("name", subscription.getName());
+            entry.put("amount", subscription.getAmount());
+            entry.put("currency", subscription.getCurrency());
+            entry.put("category", subscription.getCategory());
+            entry.put("color", subscription.getServiceColor());
+            entry.put("icon", subscription.getServiceIcon());
+            occurrences.add(entry);
+            if (subscription.getAmount() != null && subscription.getCurrency() != null) {
+                totals.merge(subscription.getCurrency(), subscription.getAmount(), BigDecimal::add);
+            }
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("occurrences", occurrences);
+        response.put("count", occurrences.size());
+        response.put("totals", totals);
+        response.put("currency", currency);
+        response.put("convertedTotal", exchangeRateService.convertAll(rates, totals, currency).amount());
+        response.put("rates", ratesOf(rates));
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("nextFrom", nextFrom != null ? nextFrom.toString() : null);
+        
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * 구독 분석 (사용자별 집계에서 바로 계산하므로 구독 수와 관계없이 응답 크기와 비용이 일정)
+     * 금액은 통화별로 나눠 돌려주며, monthly 는 결제 주기를 월 단위로 환산한 금액이다.
+     * converted 는 currency (기본: 설정한 기준 통화)로 환율 환산한 합계이며, 환율이 없는 통화는 unconverted 에 남는다.
+     * series 는 이번 달까지 months 개월의 활성 구독 월 환산 금액 (등록 월 기준 추정)이다.
+     * 응답은 데이터 버전과 환율 스냅샷 버전이 같은 동안 캐시해 재사용한다.
+     */
+    @GetMapping("/analytics")
+    public ResponseEntity<Map<String, Object>> getAnalytics(@RequestParam(value = "months", defaultValue = "12") int months,
+                                                            @RequestParam(value = "currency", required = false) String currencyParam,
+                                                            HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        if (months < 1 || months > MAX_ANALYTICS_MONTHS) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "조회 기간은 1~" + MAX_ANALYTICS_MONTHS + "개월 사이여야 합니다.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        String currency = exchangeRateService.normalize(currencyParam);
+        if (!exchangeRateService.getSnapshot().supports(currency)) {
+            return unsupportedCurrency(currency);
+        }
+        
+        Long userId = getUserId(session);
+        YearMonth to = YearMonth.now();
+        String dataTag = subscriptionRepository.getUserVersionTag(userId) + "/" + to;
+        Map<String, Object> analytics = exchangeRateService.cached("analytics:" + userId + ":" + months + ":" + currency, dataTag,
+            rates -> buildAnalytics(subscriptionRepository.getAggregates(userId), to.minusMonths(months - 1L), to, rates, currency));
+        
+        Map<String, Object> response = new HashMap<>(analytics);
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+    
+    private Map<String, Object> buildAnalytics(SubscriptionAggregates aggregates, YearMonth from, YearMonth to,
+                                               ExchangeRateService.RateSnapshot rates, String currency) {
+        SubscriptionAggregates.Totals active = aggregates.active();
+        Map<String, Object> summary = totalsOf(active, rates, currency);
+        Map<String, BigDecimal> yearly = new TreeMap<>();
+        active.monthly().forEach((code, amount) -> yearly.put(code, amount.multiply(BigDecimal.valueOf(12))));
+        summary.put("yearly", yearly);
+        summary.put("convertedYearly", exchangeRateService.convertAll(rates, yearly, currency).amount());
+        
+        List<Map<String, Object>> series = new ArrayList<>();
+        aggregates.monthlySeries(from, to).forEach((month, amounts) -> {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("month", month.toString());
+            point.put("monthly", amounts);
+            point.put("convertedMonthly", exchangeRateService.convertAll(rates, amounts, currency).amount());
+            series.add(point);
+        });
+        
+        Map<String, Object> analytics = new HashMap<>();
+        analytics.put("currency", currency);
+        analytics.put("rates", ratesOf(rates));
+        analytics.put("active", summary);
+        analytics.put("byCategory", groupedTotals(aggregates.byCategory(), "category", rates, currency));
+        analytics.put("byBillingCycle", groupedTotals(aggregates.byBillingCycle(), "billingCycle", rates, currency));
+        analytics.put("byStatus", groupedTotals(aggregates.byStatus(), "status", rates, currency));
+        analytics.put("series", series);
+        return Collections.unmodifiableMap(analytics);
+    }
+    
+    private <K> List<Map<String, Object>> groupedTotals(Map<K, SubscriptionAggregates.Totals> grouped, String keyName,
+                                                        ExchangeRateService.RateSnapshot rates, String currency) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        grouped.forEach((key, totals) -> {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put(keyName, key);
+            entry.putAll(totalsOf(totals, rates, currency));
+            result.add(entry);
+        });
+        return result;
+    }
+    
+    private Map<String, Object> totalsOf(SubscriptionAggregates.Totals totals, ExchangeRateService.RateSnapshot rates, String currency) {
+        ExchangeRateService.Conversion converted = exchangeRateService.convertAll(rates, totals.amount(), currency);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", totals.count());
+        result.put("amount", totals.amount());
+        result.put("monthly", totals.monthly());
+        result.put("convertedAmount", converted.amount());
+        result.put("convertedMonthly", exchangeRateService.convertAll(rates, totals.monthly(), currency).amount());
+        if (!converted.unconverted().isEmpty()) {
+            result.put("unconverted", converted.unconverted());
+        }
+        return result;
+    }
+    
+    /**
+     * 절약 기회 (같은 서비스 중복, 같은 카테고리 통합, 연간 결제 전환, 사용이 적을 수 있는 고가 구독)
+     * 금액은 월 환산 금액을 currency (기본: 기준 통화)로 환산해 비교하며, potentialSavings 는 연간 금액이다.
+     * 결과는 데이터 버전과 환율 스냅샷 버전이 같은 동안 캐시해 재사용한다.
+     */
+    @GetMapping("/insights")
+    public ResponseEntity<Map<String, Object>> getInsights(@RequestParam(value = "currency", required = false) String currencyParam,
+                                                           HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        String currency = exchangeRateService.normalize(currencyParam);
+        if (!exchangeRateService.getSnapshot().supports(currency)) {
+            return unsupportedCurrency(currency);
+        }
+        
+        Long userId = getUserId(session);
+        LocalDate today = LocalDate.now();
+        String dataTag = subscriptionRepository.getUserVersionTag(userId) + "/" + today;
+        Map<String, Object> insights = exchangeRateService.cached("insights:" + userId + ":" + currency, dataTag,
+            rates -> buildInsights(subscriptionRepository.findByUserIdInDisplayOrder(userId), rates, currency));
+        
+        Map<String, Object> response = new HashMap<>(insights);
+        response.put("success", true);
+        return ResponseEntity.ok(response);
+    }
+    
+    private Map<String, Object> buildInsights(List<Subscription> subscriptions, ExchangeRateService.RateSnapshot rates,
+                                              String currency) {
+        SubscriptionInsights.Thresholds thresholds = new SubscriptionInsights.Thresholds(
+            exchangeRateService.convert(rates, INSIGHT_EXPENSIVE_MONTHLY_KRW, "KRW", currency),
+            exchangeRateService.convert(rates, INSIGHT_MINIMUM_SAVINGS_KRW, "KRW", currency));
+        List<SubscriptionInsights.Opportunity> opportunities = SubscriptionInsights.analyze(subscriptions,
+            subscription -> exchangeRateService.convert(rates,
+                SubscriptionAggregates.toMonthly(subscription.getBillingCycle(),
+                    subscription.getAmount() != null ? subscription.getAmount() : BigDecimal.ZERO),
+                subscription.getCurrency(), currency),
+            thresholds, LocalDateTime.now());
+        
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (SubscriptionInsights.Opportunity opportunity : opportunities) {
+            List<Map<String, Object>> members = new ArrayList<>();
+            for (Subscription subscription : opportunity.subscriptions()) {
+                Map<String, Object> member = new LinkedHashMap<>();
+                member.put("id", subscription.getId());
+                member.put("name", subscription.getName());
+                member.put("category", subscription.getCategory());
+                member.put("amount", subscription.getAmount());
+                member.put("currency", subscription.getCurrency());
+                member.put("billingCycle", subscription.getBillingCycle());
+                members.add(member);
+            }
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("type", opportunity.type());
+            entry.put("key", opportunity.key());
+            entry.put("reason", opportunity.reason());
+            entry.put("monthly", opportunity.monthly());
+            entry.put("potentialSavings", opportunity.potentialSavings());
+            entry.put("subscriptions", members);
+            entries.add(entry);
+        }
+        
+        Map<String, Object> insights = new HashMap<>();
+        insights.put("currency", currency);
+        insights.put("rates", ratesOf(rates));
+        insights.put("opportunities", entries);
+        insights.put("count", entries.size());
+        return Collections.unmodifiableMap(insights);
+    }
+    
+    /**
+     * 환산에 쓴 환율 스냅샷 정보
+     */
+    private static Map<String, Object> ratesOf(ExchangeRateService.RateSnapshot rates) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("version", rates.version());
+        result.put("date", rates.date());
+        result.put("source", rates.source());
+        return result;
+    }
+    
+    private static ResponseEntity<Map<String, Object>> unsupportedCurrency(String currency) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", false);
+        response.put("message", "환율 정보가 없는 통화입니다: " + currency);
+        return ResponseEntity.badRequest().body(response);
+    }
+    
+    /**
+     * 특정 구독 조회
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<Map<String, Object>> getSubscription(@PathVariable("id") Long subscriptionId,
+                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                               HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
         }
         
+        Long userId = getUserId(session);
+        
+        // 태그를 먼저 정하고 조회 (메모리 조회라 저장소 I/O 없음), 없는 구독은 If-None-Match: * 여도 404
+        String etag = etagOf(userId);
+        Subscription foundSubscription = subscriptionRepository.findById(userId, subscriptionId);
+        
         if (foundSubscription == null) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -319,15 +1186,22 @@ public class SubscriptionController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
         }
         
+        if (matchesEtag(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+        
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.put("subscription", foundSubscription);
         
-        return ResponseEntity.ok(response);
+        return withEtag(ResponseEntity.ok(), etag).body(response);
     }
     
     /**
      * 구독 순서 업데이트 (Drag & Drop)
+     * orderedIds 순서대로 놓고 빠진 구독은 기존 순서대로 뒤에 붙인다.
+     * 이미 순서가 맞는 가장 긴 부분열의 순서 키는 그대로 두고 나머지 구독의 키만 바꿔 저장한다.
+     * 응답의 subscriptions 는 새 순서의 전체 목록, changed 는 순서 키가 바뀌어 저장된 구독이다.
      */
     @PutMapping("/order")
     public ResponseEntity<Map<String, Object>> updateSubscriptionOrder(@RequestBody Map<String, Object> request,
@@ -339,6 +1213,8 @@ public class SubscriptionController {
         
         Long userId = getUserId(session);
         
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
         try {
             @SuppressWarnings("unchecked")
             List<Object> orderedIdsObj = (List<Object>) request.get("orderedIds");
@@ -349,8 +1225,8 @@ public class SubscriptionController {
                 return ResponseEntity.badRequest().body(response);
             }
             
-            // ID를 Long으로 변환
-            List<Long> orderedIds = new ArrayList<>();
+            // ID를 Long으로 변환 (중복은 처음 위치만 사용)
+            Set<Long> orderedIds = new LinkedHashSet<>();
             for (Object idObj : orderedIdsObj) {
                 if (idObj instanceof Number) {
                     orderedIds.add(((Number) idObj).longValue());
@@ -359,59 +1235,197 @@ public class SubscriptionController {
                 }
             }
             
-            // 현재 구독 목록 가져오기
-            List<Map<String, Object>> userSubscriptions = jsonFileService.readUserSubscriptions(userId);
-            if (userSubscriptions == null) {
-                userSubscriptions = new ArrayList<>();
+            // 현재 구독 목록 (사용자 지정 순서)
+            Map<Long, Subscription> byId = new LinkedHashMap<>();
+            for (Subscription sub : subscriptionRepository.findByUserIdInDisplayOrder(userId)) {
+                byId.put(sub.getId(), sub);
             }
             
-            // 순서대로 정렬된 새 리스트 생성
-            List<Map<String, Object>> orderedSubscriptions = new ArrayList<>();
+            // 순서대로 정렬된 새 리스트 생성, 지정되지 않은 나머지는 기존 순서대로 뒤에 추가
+            List<Subscription> orderedSubscriptions = new ArrayList<>(byId.size());
             for (Long id : orderedIds) {
-                userSubscriptions.stream()
-                    .filter(sub -> {
-                        Object subIdObj = sub.get("id");
-                        long subId = subIdObj instanceof Number 
-                            ? ((Number) subIdObj).longValue() 
-                            : Long.parseLong(subIdObj.toString());
-                        return subId == id;
-                    })
-                    .findFirst()
-                    .ifPresent(orderedSubscriptions::add);
-            }
-            
-            // 순서가 지정되지 않은 나머지 구독 추가
-            for (Map<String, Object> sub : userSubscriptions) {
-                Object subIdObj = sub.get("id");
-                long subId = subIdObj instanceof Number 
-                    ? ((Number) subIdObj).longValue() 
-                    : Long.parseLong(subIdObj.toString());
-                
-                if (!orderedIds.contains(subId)) {
+                Subscription sub = byId.remove(id);
+                if (sub != null) {
                     orderedSubscriptions.add(sub);
                 }
             }
+            orderedSubscriptions.addAll(byId.values());
             
-            // 순서 정보를 각 구독에 저장 (선택사항)
-            for (int i = 0; i < orderedSubscriptions.size(); i++) {
-                orderedSubscriptions.get(i).put("displayOrder", i);
-            }
-            
-            // 저장
-            jsonFileService.saveUserSubscriptions(userId, orderedSubscriptions);
+            List<Subscription> saved = saveRanks(userId, orderedSubscriptions);
+            eventHub.publish(userId, "reorder", Map.of("ranks", ranksOf(saved)));
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
             response.put("message", "구독 순서가 업데이트되었습니다.");
+            response.put("subscriptions", subscriptionRepository.findByUserIdInDisplayOrder(userId));
+            response.put("changed", saved);
             
             return ResponseEntity.ok(response);
-            
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
             response.put("message", "순서 업데이트 중 오류가 발생했습니다: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 구독 한 건 위치 이동 (Drag & Drop)
+     * 요청: {"afterId": N} (N 바로 뒤로) 또는 {"beforeId": N} (N 바로 앞으로), 둘 다 주면 두 구독이 이웃해 있어야 함.
+     * 옮긴 구독의 순서 키만 이웃 키 사이 값으로 바꾼다 (순서 키가 없던 구독이 있으면 그 구독들도 이때 한 번 키를 받음).
+     */
+    @PutMapping("/{id}/position")
+    public ResponseEntity<Map<String, Object>> moveSubscription(@PathVariable("id") Long subscriptionId,
+                                                                @RequestBody JsonNode request,
+                                                                HttpSession session) {
+        ResponseEntity<Map<String, Object>> authCheck = checkAuth(session);
+        if (authCheck != null) {
+            return authCheck;
+        }
+        
+        Long afterId = request.path("afterId").canConvertToLong() ? request.path("afterId").asLong() : null;
+        Long beforeId = request.path("beforeId").canConvertToLong() ? request.path("beforeId").asLong() : null;
+        if ((afterId == null && beforeId == null) || subscriptionId.equals(afterId) || subscriptionId.equals(beforeId)) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "afterId 또는 beforeId 로 옮길 위치를 지정해주세요.");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Long userId = getUserId(session);
+        
+        ReentrantLock lock = subscriptionRepository.lockFor(userId);
+        lock.lock();
+        try {
+            List<Subscription> ordered = subscriptionRepository.findByUserIdInDisplayOrder(userId);
+            Subscription moved = null;
+            for (Iterator<Subscription> it = ordered.iterator(); it.hasNext(); ) {
+                Subscription sub = it.next();
+                if (sub.getId().equals(subscriptionId)) {
+                    moved = sub;
+                    it.remove();
+                    break;
+                }
+            }
+            if (moved == null) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "구독을 찾을 수 없습니다.");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+            
+            JsonNode requestVersion = request.get("version");
+            if (requestVersion != null && !requestVersion.isNull()
+                    && requestVersion.asLong() != SubscriptionRepository.versionOf(moved)) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "다른 곳에서 먼저 수정된 구독입니다. 새로고침 후 다시 시도해주세요.");
+                response.put("subscription", moved);
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            
+            Map<Long, Integer> indexById = new HashMap<>();
+            for (int i = 0; i < ordered.size(); i++) {
+                indexById.put(ordered.get(i).getId(), i);
+            }
+            Integer afterIndex = afterId != null ? indexById.get(afterId) : null;
+            Integer beforeIndex = beforeId != null ? indexById.get(beforeId) : null;
+            if ((afterId != null && afterIndex == null) || (beforeId != null && beforeIndex == null)) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "기준 구독을 찾을 수 없습니다.");
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+            }
+            if (afterIndex != null && beforeIndex != null && beforeIndex != afterIndex + 1) {
+                Map<String, Object> response = new HashMap<>();
+                response.put("success", false);
+                response.put("message", "목록 순서가 바뀌었습니다. 새로고침 후 다시 시도해주세요.");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+            }
+            
+            int insertAt = afterIndex != null ? afterIndex + 1 : beforeIndex;
+            String lower = insertAt > 0 ? ordered.get(insertAt - 1).getRank() : null;
+            String upper = insertAt < ordered.size() ? ordered.get(insertAt).getRank() : null;
+            
+            // 이미 이웃 사이에 있는 키면 그대로 두고, 아니면 옮긴 구독의 키를 새로 만들게 비움
+            String rank = moved.getRank();
+            boolean fits = rank != null && RankKeys.isValid(rank)
+                && (insertAt == 0 || (lower != null && lower.compareTo(rank) < 0))
+                && (upper == null || rank.compareTo(upper) < 0);
+            if (!fits) {
+                moved.setRank(null);
+            }
+            ordered.add(insertAt, moved);
+            
+            List<Subscription> saved = saveRanks(userId, ordered);
+            eventHub.publish(userId, "reorder", Map.of("ranks", ranksOf(saved)));
+            
+            Subscription result = moved;
+            for (Subscription sub : saved) {
+                if (sub.getId().equals(subscriptionId)) {
+                    result = sub;
+                }
+            }
+            
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("message", "구독 위치가 변경되었습니다.");
+            response.put("subscription", result);
+            response.put("subscriptions", saved);
+            
+            return ResponseEntity.ok(response);
+        
+        } catch (StorageBusyException e) {
+            return storageBusy(e);
+        } catch (Exception e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "위치 변경 중 오류가 발생했습니다: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 원하는 순서대로 나열한 구독의 순서 키를 다시 계산해 바뀐 구독만 저장 (사용자 락 안에서 호출)
+     */
+    private List<Subscription> saveRanks(Long userId, List<Subscription> ordered) {
+        List<String> ranks = new ArrayList<>(ordered.size());
+        for (Subscription sub : ordered) {
+            ranks.add(sub.getRank());
+        }
+        String[] newRanks = RankKeys.rerank(ranks);
+        
+        List<Subscription> changed = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (newRanks[i] != null) {
+                Subscription sub = ordered.get(i);
+                sub.setRank(newRanks[i]);
+                changed.add(sub);
+            }
+        }
+        return changed.isEmpty() ? new ArrayList<>() : subscriptionRepository.saveAll(userId, changed);
+    }
+    
+    /**
+     * 순서 변경 이벤트 내용: 순서 키가 바뀐 구독의 id, 새 순서 키, 버전만 (목록 순서는 키 순서와 같음)
+     */
+    private static List<Map<String, Object>> ranksOf(List<Subscription> changed) {
+        List<Map<String, Object>> ranks = new ArrayList<>(changed.size());
+        for (Subscription sub : changed) {
+            Map<String, Object> rank = new LinkedHashMap<>();
+            rank.put("id", sub.getId());
+            rank.put("rank", sub.getRank());
+            rank.put("version", sub.getVersion());
+            ranks.add(rank);
         }
+        return ranks;
     }
 }
 
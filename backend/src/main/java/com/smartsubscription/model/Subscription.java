@@ -1,16 +1,29 @@
 package com.smartsubscription.model;
 
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * 구독 모델 (JSON 파일 기반)
  * JPA 어노테이션 제거 - JSON 파일만 사용
+ * id, userId를 맨 앞에 기록해 스트리밍 필터가 레코드 앞부분만 보고 건너뛸 수 있도록 함
  */
+@JsonPropertyOrder({"id", "userId"})
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class Subscription {
     
     private Long id;
+    private Long userId;
     private String name;
     private String description;
     private SubscriptionCategory category;
@@ -20,14 +33,28 @@ public class Subscription {
     private LocalDate nextPaymentDate;
     private LocalDate lastPaymentDate;
     private SubscriptionStatus status = SubscriptionStatus.ACTIVE;
+    @JsonProperty("icon")
     private String serviceIcon;
+    @JsonProperty("color")
     private String serviceColor;
     private String cancellationUrl;
     private Boolean autoDetected = false;
     private LocalDate pausedUntil;
+    private String paymentBank;
+    private String paymentAccount;
+    @JsonProperty("isForeign")
+    private Boolean foreign;
+    private Integer displayOrder;
+    
+    // 목록 순서 키 (사전순, 없으면 순서 키가 있는 구독 뒤에 놓임)
+    private String rank;
+    private Long version;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // 모델에 없는 필드 (프론트엔드 확장 필드 보존용, 처음 생길 때 만듦)
+    private Map<String, Object> additionalProperties;
+    
     // 기본 생성자
     public Subscription() {}
     
@@ -50,6 +77,14 @@ public class Subscription {
         this.id = id;
     }
     
+    public Long getUserId() {
+        return userId;
+    }
+    
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+    
     public String getName() {
         return name;
     }
@@ -162,6 +197,54 @@ public class Subscription {
         this.pausedUntil = pausedUntil;
     }
     
+    public String getPaymentBank() {
+        return paymentBank;
+    }
+    
+    public void setPaymentBank(String paymentBank) {
+        this.paymentBank = paymentBank;
+    }
+    
+    public String getPaymentAccount() {
+        return paymentAccount;
+    }
+    
+    public void setPaymentAccount(String paymentAccount) {
+        this.paymentAccount = paymentAccount;
+    }
+    
+    public Boolean getForeign() {
+        return foreign;
+    }
+    
+    public void setForeign(Boolean foreign) {
+        this.foreign = foreign;
+    }
+    
+    public Integer getDisplayOrder() {
+        return displayOrder;
+    }
+    
+    public void setDisplayOrder(Integer displayOrder) {
+        this.displayOrder = displayOrder;
+    }
+    
+    public String getRank() {
+        return rank;
+    }
+    
+    public void setRank(String rank) {
+        this.rank = rank;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -177,4 +260,50 @@ public class Subscription {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+    
+    @JsonAnyGetter
+    public Map<String, Object> getAdditionalProperties() {
+        return additionalProperties != null ? additionalProperties : Collections.emptyMap();
+    }
+    
+    @JsonAnySetter
+    public void setAdditionalProperty(String name, Object value) {
+        if (additionalProperties == null) {
+            additionalProperties = new LinkedHashMap<>();
+        }
+        additionalProperties.put(name, value);
+    }
+    
+    /**
+     * 저장소에 보관된 레코드를 호출자에게 넘길 때 사용하는 사본
+     */
+    public Subscription copy() {
+        Subscription copy = new Subscription();
+        copy.id = id;
+        copy.userId = userId;
+        copy.name = name;
+        copy.description = description;
+        copy.category = category;
+        copy.amount = amount;
+        copy.currency = currency;
+        copy.billingCycle = billingCycle;
+        copy.nextPaymentDate = nextPaymentDate;
+        copy.lastPaymentDate = lastPaymentDate;
+        copy.status = status;
+        copy.serviceIcon = serviceIcon;
+        copy.serviceColor = serviceColor;
+        copy.cancellationUrl = cancellationUrl;
+        copy.autoDetected = autoDetected;
+        copy.pausedUntil = pausedUntil;
+        copy.paymentBank = paymentBank;
+        copy.paymentAccount = paymentAccount;
+        copy.foreign = foreign;
+        copy.displayOrder = displayOrder;
+        copy.rank = rank;
+        copy.version = version;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.additionalProperties = additionalProperties != null ? new LinkedHashMap<>(additionalProperties) : null;
+        return copy;
+    }
 }
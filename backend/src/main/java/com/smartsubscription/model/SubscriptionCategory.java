@@ -1,17 +1,27 @@
 package com.smartsubscription.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
 /**
  * 구독 카테고리 열거형
  */
 public enum SubscriptionCategory {
     ENTERTAINMENT("엔터테인먼트"),
     MUSIC("음악"),
+    AI("AI"),
+    SOCIAL("소셜"),
     NEWS("뉴스"),
     PRODUCTIVITY("생산성"),
     CLOUD("클라우드"),
     FITNESS("피트니스"),
     EDUCATION("교육"),
+    FINANCE("금융"),
     GAMING("게임"),
+    DEVELOPMENT("개발"),
+    SECURITY("보안"),
     SHOPPING("쇼핑"),
     OTHER("기타");
     
@@ -24,4 +34,27 @@ public enum SubscriptionCategory {
     public String getDisplayName() {
         return displayName;
     }
+    
+    /**
+     * JSON 데이터와 프론트엔드는 소문자 값을 사용
+     */
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * JSON 값 (소문자) → 열거형, 빈 문자열은 null / 알 수 없는 값은 기타
+     */
+    @JsonCreator
+    public static SubscriptionCategory fromJson(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return OTHER;
+        }
+    }
 }
@@ -1,5 +1,10 @@
 package com.smartsubscription.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.util.Locale;
+
 /**
  * 구독 상태 열거형
  */
@@ -18,4 +23,23 @@ public enum SubscriptionStatus {
     public String getDisplayName() {
         return displayName;
     }
+    
+    /**
+     * JSON 데이터와 프론트엔드는 소문자 값을 사용
+     */
+    @JsonValue
+    public String toJson() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    
+    /**
+     * JSON 값 (소문자) → 열거형, 빈 문자열은 null
+     */
+    @JsonCreator
+    public static SubscriptionStatus fromJson(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
 }
@@ -1,5 +1,7 @@
 package com.smartsubscription.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -7,6 +9,7 @@ import java.util.List;
  * 사용자 모델 (JSON 파일 기반)
  * JPA 어노테이션 제거 - JSON 파일만 사용
  */
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class User {
     
     private Long id;
@@ -0,0 +1,95 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.Subscription;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 다음 결제일(nextPaymentDate) 정렬 인덱스
+ * 
+ * (결제일, 구독 ID) 순으로 정렬된 스킵 리스트를 전체용과 사용자별로 유지해
+ * 기간 조회를 O(log n + k) 로 처리한다. 결제일이 없는 구독은 색인하지 않는다.
+ * 갱신은 SubscriptionRepository 가 사용자 락을 잡은 채로 호출하며,
+ * 읽기는 락 없이 진행되므로 갱신 중인 레코드 하나가 잠깐 빠져 보일 수 있다.
+ */
+class PaymentDateIndex {
+    
+    /**
+     * 정렬 키 (같은 날짜의 구독은 ID 순)
+     */
+    private record Key(LocalDate date, long id) implements Comparable<Key> {
+        
+        @Override
+        public int compareTo(Key other) {
+            int result = date.compareTo(other.date);
+            return result != 0 ? result : Long.compare(id, other.id);
+        }
+    }
+    
+    private final ConcurrentSkipListMap<Key, Subscription> all = new ConcurrentSkipListMap<>();
+    
+    private final Map<Long, ConcurrentSkipListMap<Key, Subscription>> byUser = new ConcurrentHashMap<>();
+    
+    /**
+     * 레코드 추가 또는 교체 (previous: 교체 전 레코드, 새 레코드면 null)
+     */
+    void put(Subscription previous, Subscription current) {
+        remove(previous);
+        Key key = keyOf(current);
+        if (key == null) {
+            return;
+        }
+        all.put(key, current);
+        byUser.computeIfAbsent(current.getUserId(), userId -> new ConcurrentSkipListMap<>()).put(key, current);
+    }
+    
+    /**
+     * 레코드 제거 (null 이거나 색인되지 않은 레코드면 무시)
+     */
+    void remove(Subscription previous) {
+        Key key = previous != null ? keyOf(previous) : null;
+        if (key == null) {
+            return;
+        }
+        all.remove(key);
+        NavigableMap<Key, Subscription> userIndex = byUser.get(previous.getUserId());
+        if (userIndex != null) {
+            userIndex.remove(key);
+        }
+    }
+    
+    /**
+     * 전체 사용자의 결제일 from ~ to (양 끝 포함) 구독
+     */
+    List<Subscription> range(LocalDate from, LocalDate to) {
+        return slice(all, from, to);
+    }
+    
+    /**
+     * 한 사용자의 결제일 from ~ to (양 끝 포함) 구독
+     */
+    List<Subscription> range(Long userId, LocalDate from, LocalDate to) {
+        ConcurrentSkipListMap<Key, Subscription> userIndex = byUser.get(userId);
+        return userIndex != null ? slice(userIndex, from, to) : new ArrayList<>();
+    }
+    
+    private static List<Subscription> slice(ConcurrentSkipListMap<Key, Subscription> index, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(index.subMap(new Key(from, Long.MIN_VALUE), true, new Key(to, Long.MAX_VALUE), true).values());
+    }
+    
+    private static Key keyOf(Subscription subscription) {
+        if (subscription.getNextPaymentDate() == null || subscription.getId() == null || subscription.getUserId() == null) {
+            return null;
+        }
+        return new Key(subscription.getNextPaymentDate(), subscription.getId());
+    }
+}
@@ -0,0 +1,243 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.BillingCycle;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionCategory;
+import com.smartsubscription.model.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * 사용자 한 명의 구독 집계 (분석 화면용)
+ * 
+ * (상태, 카테고리, 결제 주기, 통화, 등록 월) 조합마다 구독 수와 금액 합계만 보관하며,
+ * 구독이 추가/수정/삭제될 때 바뀐 레코드의 몫만 빼고 더해 새 집계를 만든다 (목록을 다시 훑지 않음).
+ * 집계 단위는 해시로 고정 개수의 묶음에 나눠 두고, 새 집계는 바뀐 집계 단위가 든 묶음만 복사하며 나머지 묶음은 이전 집계와 공유한다.
+ * 금액 합계는 원래 주기 금액 그대로 정확히 더하고, 월 환산은 읽을 때 주기별로 한다.
+ * 만든 뒤에는 바뀌지 않으므로 락 없이 읽는다.
+ */
+public final class SubscriptionAggregates {
+    
+    // 월 환산 금액의 소수 자릿수
+    private static final int MONTHLY_SCALE = 2;
+    
+    // 집계 단위 묶음 수 (2의 거듭제곱, 쓰기 한 번에 묶음 배열과 바뀐 묶음만 복사)
+    private static final int BUCKETS = 64;
+    
+    /**
+     * 집계 단위
+     */
+    public record Cell(SubscriptionStatus status, SubscriptionCategory category, BillingCycle billingCycle,
+                       String currency, YearMonth createdMonth) {
+    }
+    
+    /**
+     * 집계 단위 하나의 구독 수와 금액 합계 (원래 주기 금액)
+     */
+    public record Sum(long count, BigDecimal amount) {
+        
+        Sum plus(long otherCount, BigDecimal otherAmount) {
+            return new Sum(count + otherCount, amount.add(otherAmount));
+        }
+    }
+    
+    /**
+     * 묶음별 합계 (amount: 원래 주기 금액 합계, monthly: 월 환산 금액 합계, 둘 다 통화별)
+     */
+    public record Totals(long count, Map<String, BigDecimal> amount, Map<String, BigDecimal> monthly) {
+    }
+    
+    static final SubscriptionAggregates EMPTY = new SubscriptionAggregates(emptyBuckets());
+    
+    // 집계 단위 묶음 (만든 뒤에는 바꾸지 않으며 이후 집계와 공유함)
+    private final Map<Cell, Sum>[] buckets;
+    
+    private SubscriptionAggregates(Map<Cell, Sum>[] buckets) {
+        this.buckets = buckets;
+    }
+    
+    @SuppressWarnings("unchecked")
+    private static Map<Cell, Sum>[] emptyBuckets() {
+        Map<Cell, Sum>[] buckets = (Map<Cell, Sum>[]) new Map<?, ?>[BUCKETS];
+        Arrays.fill(buckets, Map.of());
+        return buckets;
+    }
+    
+    /**
+     * 처음 읽어 들인 목록으로 집계 생성
+     */
+    static SubscriptionAggregates of(Collection<Subscription> subscriptions) {
+        return EMPTY.with(Collections.emptyList(), subscriptions);
+    }
+    
+    /**
+     * removed 의 몫을 빼고 added 의 몫을 더한 새 집계 (수정은 이전 레코드를 removed, 새 레코드를 added 로 넘김)
+     */
+    SubscriptionAggregates with(Collection<Subscription> removed, Collection<Subscription> added) {
+        if (removed.isEmpty() && added.isEmpty()) {
+            return this;
+        }
+        Map<Cell, Sum>[] next = buckets.clone();
+        // 이번 집계에서 이미 복사한 묶음 (같은 묶음은 한 번만 복사)
+        boolean[] copied = new boolean[BUCKETS];
+        for (Subscription subscription : removed) {
+            apply(next, copied, subscription, -1);
+        }
+        for (Subscription subscription : added) {
+            apply(next, copied, subscription, 1);
+        }
+        return new SubscriptionAggregates(next);
+    }
+    
+    private static void apply(Map<Cell, Sum>[] buckets, boolean[] copied, Subscription subscription, int sign) {
+        Cell cell = cellOf(subscription);
+        int index = cell.hashCode() & (BUCKETS - 1);
+        if (!copied[index]) {
+            buckets[index] = new HashMap<>(buckets[index]);
+            copied[index] = true;
+        }
+        Map<Cell, Sum> bucket = buckets[index];
+        BigDecimal amount = subscription.getAmount() != null ? subscription.getAmount() : BigDecimal.ZERO;
+        Sum sum = bucket.getOrDefault(cell, new Sum(0, BigDecimal.ZERO))
+            .plus(sign, sign > 0 ? amount : amount.negate());
+        if (sum.count() <= 0) {
+            bucket.remove(cell);
+        } else {
+            bucket.put(cell, sum);
+        }
+    }
+    
+    private static Cell cellOf(Subscription subscription) {
+        String currency = subscription.getCurrency() != null
+            ? SubscriptionQueryIndex.normalizeCurrency(subscription.getCurrency()) : "KRW";
+        YearMonth createdMonth = subscription.getCreatedAt() != null ? YearMonth.from(subscription.getCreatedAt()) : null;
+        BillingCycle cycle = subscription.getBillingCycle() != null ? subscription.getBillingCycle() : BillingCycle.MONTHLY;
+        return new Cell(subscription.getStatus(), subscription.getCategory(), cycle, currency, createdMonth);
+    }
+    
+    /**
+     * 모든 집계 단위 (읽기 전용, 호출할 때마다 묶음을 모아 만듦)
+     */
+    public Map<Cell, Sum> cells() {
+        Map<Cell, Sum> cells = new HashMap<>();
+        for (Map<Cell, Sum> bucket : buckets) {
+            cells.putAll(bucket);
+        }
+        return Collections.unmodifiableMap(cells);
+    }
+    
+    /**
+     * 활성 구독 합계
+     */
+    public Totals active() {
+        return group(cell -> Boolean.TRUE, true, new HashMap<>())
+            .getOrDefault(Boolean.TRUE, new Totals(0, Map.of(), Map.of()));
+    }
+    
+    /**
+     * 활성 구독의 카테고리별 합계
+     */
+    public Map<SubscriptionCategory, Totals> byCategory() {
+        return group(Cell::category, true, new EnumMap<>(SubscriptionCategory.class));
+    }
+    
+    /**
+     * 활성 구독의 결제 주기별 합계
+     */
+    public Map<BillingCycle, Totals> byBillingCycle() {
+        return group(Cell::billingCycle, true, new EnumMap<>(BillingCycle.class));
+    }
+    
+    /**
+     * 상태별 합계 (모든 구독)
+     */
+    public Map<SubscriptionStatus, Totals> byStatus() {
+        return group(Cell::status, false, new EnumMap<>(SubscriptionStatus.class));
+    }
+    
+    /**
+     * from ~ to 각 월의 활성 구독 월 환산 금액 (통화별)
+     * 해지 / 일시정지 이력은 남지 않으므로 지금 활성인 구독을 등록 월부터 계속 낸 것으로 본다 (등록일이 없으면 처음부터).
+     */
+    public NavigableMap<YearMonth, Map<String, BigDecimal>> monthlySeries(YearMonth from, YearMonth to) {
+        // 등록 월별 월 환산 금액 -> 누적 합
+        TreeMap<YearMonth, Map<String, BigDecimal>> added = new TreeMap<>();
+        Map<String, BigDecimal> before = new TreeMap<>();
+        for (Map<Cell, Sum> bucket : buckets) {
+            for (Map.Entry<Cell, Sum> entry : bucket.entrySet()) {
+                Cell cell = entry.getKey();
+                if (cell.status() != SubscriptionStatus.ACTIVE) {
+                    continue;
+                }
+                BigDecimal monthly = toMonthly(cell.billingCycle(), entry.getValue().amount());
+                Map<String, BigDecimal> target = cell.createdMonth() == null || cell.createdMonth().isBefore(from)
+                    ? before
+                    : added.computeIfAbsent(cell.createdMonth(), month -> new TreeMap<>());
+                target.merge(cell.currency(), monthly, BigDecimal::add);
+            }
+        }
+        
+        NavigableMap<YearMonth, Map<String, BigDecimal>> series = new TreeMap<>();
+        Map<String, BigDecimal> running = new TreeMap<>(before);
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            Map<String, BigDecimal> joined = added.get(month);
+            if (joined != null) {
+                joined.forEach((currency, amount) -> running.merge(currency, amount, BigDecimal::add));
+            }
+            series.put(month, Collections.unmodifiableMap(new TreeMap<>(running)));
+        }
+        return series;
+    }
+    
+    /**
+     * 결제 주기 금액 → 월 환산 금액 (주간은 연 52주 기준)
+     */
+    public static BigDecimal toMonthly(BillingCycle cycle, BigDecimal amount) {
+        BigDecimal monthly = switch (cycle != null ? cycle : BillingCycle.MONTHLY) {
+            case MONTHLY -> amount;
+            case WEEKLY -> amount.multiply(BigDecimal.valueOf(52)).divide(BigDecimal.valueOf(12), MONTHLY_SCALE, RoundingMode.HALF_UP);
+            case QUARTERLY -> amount.divide(BigDecimal.valueOf(3), MONTHLY_SCALE, RoundingMode.HALF_UP);
+            case BIANNUAL -> amount.divide(BigDecimal.valueOf(6), MONTHLY_SCALE, RoundingMode.HALF_UP);
+            case YEARLY -> amount.divide(BigDecimal.valueOf(12), MONTHLY_SCALE, RoundingMode.HALF_UP);
+        };
+        // 나누어떨어지면 소수 자릿수 없이 (1000.00 -> 1000)
+        BigDecimal stripped = monthly.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+    
+    private <K> Map<K, Totals> group(Function<Cell, K> key, boolean activeOnly, Map<K, Totals> result) {
+        Map<K, long[]> counts = new HashMap<>();
+        Map<K, Map<String, BigDecimal>> amounts = new HashMap<>();
+        Map<K, Map<String, BigDecimal>> monthlies = new HashMap<>();
+        for (Map<Cell, Sum> bucket : buckets) {
+            for (Map.Entry<Cell, Sum> entry : bucket.entrySet()) {
+                Cell cell = entry.getKey();
+                K group = key.apply(cell);
+                if (group == null || (activeOnly && cell.status() != SubscriptionStatus.ACTIVE)) {
+                    continue;
+                }
+                Sum sum = entry.getValue();
+                counts.computeIfAbsent(group, k -> new long[1])[0] += sum.count();
+                amounts.computeIfAbsent(group, k -> new TreeMap<>()).merge(cell.currency(), sum.amount(), BigDecimal::add);
+                monthlies.computeIfAbsent(group, k -> new TreeMap<>())
+                    .merge(cell.currency(), toMonthly(cell.billingCycle(), sum.amount()), BigDecimal::add);
+            }
+        }
+        for (Map.Entry<K, long[]> entry : counts.entrySet()) {
+            K group = entry.getKey();
+            result.put(group, new Totals(entry.getValue()[0], amounts.get(group), monthlies.get(group)));
+        }
+        return result;
+    }
+}
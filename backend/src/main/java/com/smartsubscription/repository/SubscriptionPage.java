@@ -0,0 +1,12 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.Subscription;
+
+import java.util.List;
+
+/**
+ * 구독 목록 조회 결과 한 페이지
+ * total 은 조건에 맞는 전체 건수이고, nextCursor 는 다음 페이지가 없으면 null 이다.
+ */
+public record SubscriptionPage(List<Subscription> subscriptions, int total, String nextCursor) {
+}
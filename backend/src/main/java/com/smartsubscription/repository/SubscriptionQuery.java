@@ -0,0 +1,58 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.SubscriptionCategory;
+import com.smartsubscription.model.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 구독 목록 조회 조건
+ * 
+ * 비어 있는 조건(null 또는 빈 집합)은 거르지 않는다. 금액 범위는 양 끝을 포함하며,
+ * cursor 는 이전 페이지 응답의 nextCursor 를 그대로 넘긴다 (정렬 조건이 같아야 함).
+ */
+public record SubscriptionQuery(Set<SubscriptionStatus> statuses,
+                                Set<SubscriptionCategory> categories,
+                                Set<String> currencies,
+                                BigDecimal minAmount,
+                                BigDecimal maxAmount,
+                                Sort sort,
+                                boolean descending,
+                                int limit,
+                                String cursor) {
+    
+    /**
+     * 정렬 기준 (같은 값이면 구독 ID 순)
+     */
+    public enum Sort {
+        ORDER("order"),
+        AMOUNT("amount"),
+        NEXT_PAYMENT_DATE("nextPaymentDate"),
+        NAME("name"),
+        CREATED_AT("createdAt");
+        
+        private final String parameter;
+        
+        Sort(String parameter) {
+            this.parameter = parameter;
+        }
+        
+        public String getParameter() {
+            return parameter;
+        }
+        
+        /**
+         * 요청 파라미터 값 → 정렬 기준 (대소문자 무시, 모르는 값이면 null)
+         */
+        public static Sort fromParameter(String value) {
+            for (Sort sort : values()) {
+                if (sort.parameter.toLowerCase(Locale.ROOT).equals(value.toLowerCase(Locale.ROOT))) {
+                    return sort;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionCategory;
+import com.smartsubscription.model.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+/**
+ * 사용자 한 명의 구독 목록 조회 인덱스
+ * 
+ * 상태 / 카테고리 / 통화별 위치 비트셋과 정렬 기준별 위치 배열을 두고, 조건은 비트셋 교집합으로,
+ * 금액 범위는 금액순 배열의 이분 탐색으로 거른다. 정렬 배열은 처음 쓰일 때 만든다.
+ * 목록이 바뀌면 새로 만들어야 하며 (source 로 확인), 만든 뒤에는 바뀌지 않으므로 여러 스레드가 함께 읽는다.
+ * 
+ * 커서는 마지막으로 보낸 레코드의 (정렬 값, ID) 를 담으므로 페이지 사이에 목록이 바뀌어도
+ * 이미 보낸 레코드를 다시 보내거나 건너뛰지 않는다 (ORDER 정렬은 사용자 지정 순서에서의 위치를 씀).
+ */
+class SubscriptionQueryIndex {
+    
+    // 커서의 정렬 값 표기 (값이 없으면 NULL_VALUE, 있으면 VALUE_PREFIX + 값)
+    private static final String NULL_VALUE = "~";
+    private static final String VALUE_PREFIX = "=";
+    
+    final List<Subscription> source;
+    
+    private final Map<SubscriptionStatus, BitSet> byStatus = new EnumMap<>(SubscriptionStatus.class);
+    private final Map<SubscriptionCategory, BitSet> byCategory = new EnumMap<>(SubscriptionCategory.class);
+    private final Map<String, BitSet> byCurrency = new HashMap<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+    
+    // 목록 위치 -> 사용자 지정 순서에서의 위치 (ORDER 커서용, 처음 쓰일 때 만듦)
+    private volatile int[] displayIndexes;
+    
+    // (정렬 기준, 방향) -> 정렬된 위치 배열
+    private final AtomicReferenceArray<int[]> orders = new AtomicReferenceArray<>(SubscriptionQuery.Sort.values().length * 2);
+    
+    SubscriptionQueryIndex(List<Subscription> source) {
+        this.source = source;
+        for (int i = 0; i < source.size(); i++) {
+            Subscription subscription = source.get(i);
+            positions.put(subscription.getId(), i);
+            if (subscription.getStatus() != null) {
+                byStatus.computeIfAbsent(subscription.getStatus(), status -> new BitSet()).set(i);
+            }
+            if (subscription.getCategory() != null) {
+                byCategory.computeIfAbsent(subscription.getCategory(), category -> new BitSet()).set(i);
+            }
+            if (subscription.getCurrency() != null) {
+                byCurrency.computeIfAbsent(normalizeCurrency(subscription.getCurrency()), currency -> new BitSet()).set(i);
+            }
+        }
+    }
+    
+    /**
+     * 조건에 맞는 레코드 한 페이지 (목록의 레코드를 그대로 담으므로 호출자가 사본을 만들어야 함)
+     * 
+     * @throws IllegalArgumentException 커서가 올바르지 않거나 다른 정렬 조건으로 만든 커서인 경우
+     */
+    SubscriptionPage query(SubscriptionQuery query) {
+        SubscriptionQuery.Sort sort = query.sort() != null ? query.sort() : SubscriptionQuery.Sort.ORDER;
+        BitSet matches = filter(query);
+        int[] order = order(sort, query.descending());
+        int start = query.cursor() != null ? seek(order, sort, query.descending(), query.cursor()) : 0;
+        
+        List<Subscription> items = new ArrayList<>();
+        int last = -1;
+        boolean more = false;
+        for (int i = start; i < order.length; i++) {
+            if (!matches.get(order[i])) {
+                continue;
+            }
+            if (items.size() == query.limit()) {
+                more = true;
+                break;
+            }
+            items.add(source.get(order[i]));
+            last = order[i];
+        }
+        
+        String nextCursor = more ? encodeCursor(sort, query.descending(), last) : null;
+        return new SubscriptionPage(items, matches.cardinality(), nextCursor);
+    }
+    
+    /**
+     * 조건에 맞는 레코드 위치
+     */
+    private BitSet filter(SubscriptionQuery query) {
+        BitSet matches = new BitSet(source.size());
+        matches.set(0, source.size());
+        if (query.statuses() != null && !query.statuses().isEmpty()) {
+            matches.and(union(byStatus, query.statuses()));
+        }
+        if (query.categories() != null && !query.categories().isEmpty()) {
+            matches.and(union(byCategory, query.categories()));
+        }
+        if (query.currencies() != null && !query.currencies().isEmpty()) {
+            List<String> currencies = query.currencies().stream().map(SubscriptionQueryIndex::normalizeCurrency).toList();
+            matches.and(union(byCurrency, currencies));
+        }
+        if (query.minAmount() != null || query.maxAmount() != null) {
+            matches.and(amountRange(query.minAmount(), query.maxAmount()));
+        }
+        return matches;
+    }
+    
+    private static <K> BitSet union(Map<K, BitSet> index, Collection<K> keys) {
+        BitSet result = new BitSet();
+        for (K key : keys) {
+            BitSet positions = index.get(key);
+            if (positions != null) {
+                result.or(positions);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 금액이 min ~ max (양 끝 포함) 인 레코드 위치 (금액순 배열에서 이분 탐색, 금액 없는 레코드는 제외)
+     */
+    private BitSet amountRange(BigDecimal min, BigDecimal max) {
+        int[] byAmount = order(SubscriptionQuery.Sort.AMOUNT, false);
+        int from = min != null ? firstIndex(byAmount, amount -> amount.compareTo(min) >= 0) : 0;
+        int to = firstIndex(byAmount, amount -> max != null && amount.compareTo(max) > 0);
+        
+        BitSet result = new BitSet(source.size());
+        for (int i = from; i < to; i++) {
+            result.set(byAmount[i]);
+        }
+        return result;
+    }
+    
+    /**
+     * 금액순 배열에서 조건을 처음 만족하는 위치 (금액 없는 레코드는 항상 만족하는 것으로 봄)
+     */
+    private int firstIndex(int[] byAmount, Predicate<BigDecimal> condition) {
+        int low = 0;
+        int high = byAmount.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            BigDecimal amount = source.get(byAmount[mid]).getAmount();
+            if (amount == null || condition.test(amount)) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 정렬된 위치 배열 (처음 요청될 때 만듦)
+     */
+    private int[] order(SubscriptionQuery.Sort sort, boolean descending) {
+        int slot = sort.ordinal() * 2 + (descending ? 1 : 0);
+        int[] order = orders.get(slot);
+        if (order == null) {
+            Comparator<Subscription> comparator = comparator(sort, descending);
+            order = IntStream.range(0, source.size())
+                .boxed()
+                .sorted((a, b) -> comparator.compare(source.get(a), source.get(b)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+            orders.set(slot, order);
+        }
+        return order;
+    }
+    
+    /**
+     * 목록 위치의 레코드가 사용자 지정 순서(ORDER 오름차순)에서 몇 번째인지
+     */
+    private int displayIndexOf(int position) {
+        int[] indexes = displayIndexes;
+        if (indexes == null) {
+            int[] order = order(SubscriptionQuery.Sort.ORDER, false);
+            indexes = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                indexes[order[i]] = i;
+            }
+            displayIndexes = indexes;
+        }
+        return indexes[position];
+    }
+    
+    /**
+     * 정렬 비교 (값이 없는 레코드는 방향과 관계없이 뒤로, 같은 값이면 ID 순)
+     */
+    private Comparator<Subscription> comparator(SubscriptionQuery.Sort sort, boolean descending) {
+        Comparator<Subscription> byValue = switch (sort) {
+            case ORDER -> SubscriptionRepository.DISPLAY_ORDER
+                .thenComparing(subscription -> positions.getOrDefault(subscription.getId(), -1));
+            case AMOUNT -> byField(Subscription::getAmount, Comparator.naturalOrder(), descending);
+            case NEXT_PAYMENT_DATE -> byField(Subscription::getNextPaymentDate, Comparator.naturalOrder(), descending);
+            case NAME -> byField(Subscription::getName, String.CASE_INSENSITIVE_ORDER, descending);
+            case CREATED_AT -> byField(Subscription::getCreatedAt, Comparator.naturalOrder(), descending);
+        };
+        if (sort == SubscriptionQuery.Sort.ORDER && descending) {
+            byValue = byValue.reversed();
+        }
+        return byValue.thenComparing(Subscription::getId);
+    }
+    
+    private static <T> Comparator<Subscription> byField(Function<Subscription, T> field, Comparator<T> order, boolean descending) {
+        return Comparator.comparing(field, Comparator.nullsLast(descending ? order.reversed() : order));
+    }
+    
+    /**
+     * 커서가 가리키는 레코드 바로 다음의 배열 위치
+     */
+    private int seek(int[] order, SubscriptionQuery.Sort sort, boolean descending, String cursor) {
+        String[] parts = decodeCursor(cursor);
+        if (!sort.getParameter().equals(parts[0]) || descending != "desc".equals(parts[1])) {
+            throw new IllegalArgumentException("정렬 조건이 커서와 다릅니다.");
+        }
+        long id;
+        String value = parts[3].startsWith(VALUE_PREFIX) ? parts[3].substring(VALUE_PREFIX.length()) : null;
+        try {
+            id = Long.parseLong(parts[2]);
+            if (sort == SubscriptionQuery.Sort.ORDER) {
+                return seekPosition(descending, id, Integer.parseInt(value));
+            }
+            return seekValue(order, sort, descending, id, value);
+        } catch (NumberFormatException | NullPointerException | DateTimeParseException e) {
+            throw new IllegalArgumentException("올바르지 않은 커서입니다.");
+        }
+    }
+    
+    /**
+     * ORDER 정렬의 다음 위치 (마지막 레코드가 그 사이 삭제됐으면 기록해 둔 위치부터 이어감)
+     */
+    private int seekPosition(boolean descending, long id, int position) {
+        Integer current = positions.get(id);
+        if (current != null) {
+            int index = displayIndexOf(current);
+            return descending ? source.size() - index : index + 1;
+        }
+        int clamped = Math.min(Math.max(position, 0), source.size());
+        return descending ? source.size() - clamped : clamped;
+    }
+    
+    /**
+     * 값 정렬의 다음 위치 (커서 값과 ID 로 만든 비교용 레코드보다 뒤에 오는 첫 위치를 이분 탐색)
+     */
+    private int seekValue(int[] order, SubscriptionQuery.Sort sort, boolean descending, long id, String value) {
+        Subscription probe = new Subscription();
+        probe.setId(id);
+        if (value != null) {
+            switch (sort) {
+                case AMOUNT -> probe.setAmount(new BigDecimal(value));
+                case NEXT_PAYMENT_DATE -> probe.setNextPaymentDate(LocalDate.parse(value));
+                case NAME -> probe.setName(value);
+                case CREATED_AT -> probe.setCreatedAt(LocalDateTime.parse(value));
+                default -> {
+                }
+            }
+        }
+        
+        Comparator<Subscription> comparator = comparator(sort, descending);
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (comparator.compare(source.get(order[mid]), probe) > 0) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * 커서 = base64url("정렬|방향|ID|정렬 값")
+     */
+    private String encodeCursor(SubscriptionQuery.Sort sort, boolean descending, int position) {
+        Subscription last = source.get(position);
+        Object value = switch (sort) {
+            case ORDER -> displayIndexOf(position);
+            case AMOUNT -> last.getAmount() != null ? last.getAmount().toPlainString() : null;
+            case NEXT_PAYMENT_DATE -> last.getNextPaymentDate();
+            case NAME -> last.getName();
+            case CREATED_AT -> last.getCreatedAt();
+        };
+        String raw = sort.getParameter() + "|" + (descending ? "desc" : "asc") + "|" + last.getId() + "|"
+            + (value != null ? VALUE_PREFIX + value : NULL_VALUE);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private static String[] decodeCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("올바르지 않은 커서입니다.");
+        }
+        String[] parts = raw.split("\\|", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("올바르지 않은 커서입니다.");
+        }
+        return parts;
+    }
+    
+    static String normalizeCurrency(String currency) {
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,379 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.Subscription;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 메모리 상주 구독 저장소
+ * 사용자의 샤드를 처음 접근할 때 한 번만 읽어 userId -> 구독 목록, id -> 구독 인덱스를 유지하고
+ * 변경 사항은 SubscriptionStore (JSON 파일 또는 H2) 에 바로 기록(write-through)한다.
+ * 
+ * 쓰기는 userId 로 고른 락 스트라이프 하나만 잡으므로 서로 다른 사용자의 쓰기는 동시에 진행된다.
+ * 저장된 목록과 레코드는 교체만 되고 제자리에서 수정되지 않으므로 읽기는 락을 잡지 않으며,
+ * 호출자에게는 항상 사본을 넘긴다.
+ * 
+ * 다음 결제일 정렬 인덱스(PaymentDateIndex)도 같은 시점에 갱신하며, 변경이 저장될 때마다
+ * 전체 데이터 버전을 올려 백그라운드 작업이 변경 여부를 값 비교만으로 확인할 수 있게 한다.
+ * 목록 조회 인덱스(SubscriptionQueryIndex)는 목록이 바뀐 뒤 처음 조회할 때 다시 만든다.
+ */
+@Repository
+public class SubscriptionRepository {
+    
+    private static final int LOCK_STRIPES = 64;
+    
+    /**
+     * 사용자가 정한 목록 순서 (순서 키 → 이전 방식의 displayOrder 순, 둘 다 없으면 목록 위치를 유지하도록 안정 정렬에 사용)
+     */
+    public static final Comparator<Subscription> DISPLAY_ORDER = Comparator
+        .comparing(Subscription::getRank, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+        .thenComparing(Subscription::getDisplayOrder, Comparator.nullsLast(Comparator.<Integer>naturalOrder()));
+    
+    private final SubscriptionStore subscriptionStore;
+    
+    // userId -> 구독 목록 (로드된 사용자만, 읽기 전용 목록)
+    private final Map<Long, List<Subscription>> subscriptionsByUser = new ConcurrentHashMap<>();
+    
+    // id -> 구독 (로드된 사용자만)
+    private final Map<Long, Subscription> subscriptionsById = new ConcurrentHashMap<>();
+    
+    // 다음 결제일 인덱스 (로드된 사용자만)
+    private final PaymentDateIndex paymentDateIndex = new PaymentDateIndex();
+    
+    // userId -> 분석용 집계 (로드된 사용자만, 변경된 레코드의 몫만 반영해 교체)
+    private final Map<Long, SubscriptionAggregates> aggregatesByUser = new ConcurrentHashMap<>();
+    
+    // userId -> 목록 조회 인덱스 (조회할 때 목록이 바뀌었으면 다시 만듦)
+    private final Map<Long, SubscriptionQueryIndex> queryIndexes = new ConcurrentHashMap<>();
+    
+    // 전체 데이터 버전 (변경이 저장될 때마다 1 증가)
+    private final AtomicLong dataVersion = new AtomicLong();
+    
+    // userId -> 사용자 데이터 버전 (해당 사용자의 변경이 저장될 때마다 1 증가, 메모리에만 유지)
+    private final Map<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    
+    // 이번 실행 구분값 (재시작으로 사용자 버전이 0 부터 다시 세어져도 이전 실행의 태그와 겹치지 않게 함)
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+    
+    // 전체 사용자 로드 여부 (전체 범위 조회를 처음 할 때 한 번 로드)
+    private volatile boolean allUsersLoaded;
+    
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+    
+    public SubscriptionRepository(SubscriptionStore subscriptionStore) {
+        this.subscriptionStore = subscriptionStore;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+    
+    /**
+     * 사용자별 쓰기 락
+     * 읽기-수정-저장을 하나의 단위로 처리해야 하는 호출자는 이 락을 잡은 채로 조회와 저장을 수행한다.
+     */
+    public ReentrantLock lockFor(Long userId) {
+        return locks[Math.floorMod(Long.hashCode(userId), LOCK_STRIPES)];
+    }
+    
+    /**
+     * 특정 사용자의 구독 목록 조회 (복사본 반환)
+     */
+    public List<Subscription> findByUserId(Long userId) {
+        return copies(loadUser(userId));
+    }
+    
+    /**
+     * 특정 사용자의 구독을 저장된 레코드 그대로 한 건씩 넘김 (스트리밍 응답용, 사본을 만들지 않음)
+     * 호출 시점의 목록을 순회하며, action 은 레코드를 수정하면 안 된다.
+     */
+    public void forEachByUserId(Long userId, Consumer<Subscription> action) {
+        loadUser(userId).forEach(action);
+    }
+    
+    /**
+     * 특정 사용자의 구독 목록을 사용자가 정한 순서로 조회 (복사본 반환)
+     */
+    public List<Subscription> findByUserIdInDisplayOrder(Long userId) {
+        List<Subscription> ordered = copies(loadUser(userId));
+        ordered.sort(DISPLAY_ORDER);
+        return ordered;
+    }
+    
+    /**
+     * 특정 사용자의 구독 단건 조회 (없거나 다른 사용자의 구독이면 null)
+     */
+    public Subscription findById(Long userId, Long subscriptionId) {
+        loadUser(userId);
+        Subscription subscription = subscriptionsById.get(subscriptionId);
+        if (subscription == null || !userId.equals(subscription.getUserId())) {
+            return null;
+        }
+        return subscription.copy();
+    }
+    
+    /**
+     * 사용자의 다음 결제일이 from ~ to (양 끝 포함) 인 구독 (결제일 순, 복사본 반환)
+     */
+    public List<Subscription> findUpcoming(Long userId, LocalDate from, LocalDate to) {
+        loadUser(userId);
+        return copies(paymentDateIndex.range(userId, from, to));
+    }
+    
+    /**
+     * 전체 사용자의 다음 결제일이 from ~ to (양 끝 포함) 인 구독 (결제일 순, 복사본 반환)
+     * 처음 호출할 때 아직 읽지 않은 사용자의 구독을 모두 읽어 들인다.
+     */
+    public List<Subscription> findAllUpcoming(LocalDate from, LocalDate to) {
+        loadAllUsers();
+        return copies(paymentDateIndex.range(from, to));
+    }
+    
+    /**
+     * 사용자의 구독을 조건으로 걸러 정렬한 한 페이지 (복사본 반환)
+     * 
+     * @throws IllegalArgumentException 커서가 올바르지 않은 경우
+     */
+    public SubscriptionPage query(Long userId, SubscriptionQuery query) {
+        List<Subscription> userSubscriptions = loadUser(userId);
+        SubscriptionQueryIndex index = queryIndexes.get(userId);
+        if (index == null || index.source != userSubscriptions) {
+            index = new SubscriptionQueryIndex(userSubscriptions);
+            queryIndexes.put(userId, index);
+        }
+        SubscriptionPage page = index.query(query);
+        return new SubscriptionPage(copies(page.subscriptions()), page.total(), page.nextCursor());
+    }
+    
+    /**
+     * 사용자의 분석용 집계 (목록을 훑지 않고 저장된 집계를 그대로 반환)
+     */
+    public SubscriptionAggregates getAggregates(Long userId) {
+        loadUser(userId);
+        return aggregatesByUser.getOrDefault(userId, SubscriptionAggregates.EMPTY);
+    }
+    
+    /**
+     * 전체 데이터 버전 (값이 같으면 그 사이 저장된 변경이 없음)
+     */
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+    
+    /**
+     * 사용자 데이터 버전 태그 (사용자의 구독이 바뀔 때마다 달라지며, 저장소를 읽지 않고 바로 계산)
+     * 다른 사용자나 이전 실행의 태그와 겹치지 않는다.
+     */
+    public String getUserVersionTag(Long userId) {
+        AtomicLong version = userVersions.get(userId);
+        return userId + "-" + instanceTag + "-" + (version != null ? version.get() : 0L);
+    }
+    
+    /**
+     * 구독 한 건 추가 또는 수정 (버전을 올린 저장본의 사본 반환)
+     */
+    public Subscription save(Subscription subscription) {
+        return saveAll(subscription.getUserId(), List.of(subscription)).get(0);
+    }
+    
+    /**
+     * 같은 사용자의 구독 여러 건 추가 또는 수정
+     * 넘겨받은 레코드만 버전을 올려 변경 로그에 기록하고, 목록에서의 위치는 유지한다 (새 레코드는 뒤에 추가).
+     */
+    public List<Subscription> saveAll(Long userId, List<Subscription> subscriptions) {
+        return applyChanges(userId, subscriptions, List.of());
+    }
+    
+    /**
+     * 구독 한 건 삭제 (없으면 false)
+     */
+    public boolean delete(Long userId, Long subscriptionId) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            if (findById(userId, subscriptionId) == null) {
+                return false;
+            }
+            applyChanges(userId, List.of(), List.of(subscriptionId));
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 같은 사용자의 추가/수정과 삭제를 한 번에 저장 (한 번의 기록으로 함께 반영되고, 실패하면 아무것도 반영되지 않음)
+     * 추가/수정한 레코드의 저장본 사본을 넘겨받은 순서대로 반환한다.
+     */
+    public List<Subscription> saveChanges(Long userId, List<Subscription> upserts, Collection<Long> deletedIds) {
+        return applyChanges(userId, upserts, deletedIds);
+    }
+    
+    /**
+     * 변경 사항을 변경 로그에 기록한 뒤 인덱스 갱신
+     */
+    private List<Subscription> applyChanges(Long userId, List<Subscription> upserts, Collection<Long> deletedIds) {
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            List<Subscription> previous = loadUser(userId);
+            
+            List<Subscription> stored = new ArrayList<>(upserts.size());
+            Map<Long, Subscription> before = new HashMap<>();
+            for (Subscription subscription : upserts) {
+                Subscription copy = subscription.copy();
+                copy.setUserId(userId);
+                Subscription existing = subscriptionsById.get(copy.getId());
+                if (existing != null) {
+                    before.put(copy.getId(), existing);
+                }
+                copy.setVersion(existing != null ? versionOf(existing) + 1 : 1L);
+                stored.add(copy);
+            }
+            
+            // 기존 레코드를 함께 넘겨 저장소가 바뀐 필드만 기록할 수 있게 함
+            subscriptionStore.saveSubscriptionChanges(userId, stored, before, deletedIds);
+            dataVersion.incrementAndGet();
+            userVersions.computeIfAbsent(userId, id -> new AtomicLong()).incrementAndGet();
+            
+            // 기존 순서를 유지하며 교체, 새 레코드는 뒤에 추가
+            LinkedHashMap<Long, Subscription> next = new LinkedHashMap<>();
+            for (Subscription subscription : previous) {
+                next.put(subscription.getId(), subscription);
+            }
+            for (Subscription subscription : stored) {
+                next.put(subscription.getId(), subscription);
+            }
+            List<Subscription> removed = new ArrayList<>();
+            Set<Long> deleted = new HashSet<>(deletedIds);
+            for (Long id : deleted) {
+                next.remove(id);
+                Subscription old = subscriptionsById.remove(id);
+                if (old != null) {
+                    removed.add(old);
+                }
+                paymentDateIndex.remove(old);
+            }
+            for (Subscription subscription : stored) {
+                Subscription old = subscriptionsById.put(subscription.getId(), subscription);
+                if (old != null) {
+                    removed.add(old);
+                }
+                paymentDateIndex.put(old, subscription);
+            }
+            aggregatesByUser.put(userId, aggregatesByUser.getOrDefault(userId, SubscriptionAggregates.EMPTY).with(removed, stored));
+            subscriptionsByUser.put(userId, Collections.unmodifiableList(new ArrayList<>(next.values())));
+            
+            return copies(stored);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 구독 레코드의 버전 (버전 도입 이전 레코드는 0)
+     */
+    public static long versionOf(Subscription subscription) {
+        return subscription.getVersion() != null ? subscription.getVersion() : 0L;
+    }
+    
+    /**
+     * 사용자의 구독을 처음 접근할 때 샤드에서 읽어 인덱스 구성
+     */
+    private List<Subscription> loadUser(Long userId) {
+        List<Subscription> userSubscriptions = subscriptionsByUser.get(userId);
+        if (userSubscriptions != null) {
+            return userSubscriptions;
+        }
+        
+        ReentrantLock lock = lockFor(userId);
+        lock.lock();
+        try {
+            userSubscriptions = subscriptionsByUser.get(userId);
+            if (userSubscriptions != null) {
+                return userSubscriptions;
+            }
+            
+            List<Subscription> loaded = new ArrayList<>();
+            for (Subscription subscription : subscriptionStore.readUserSubscriptions(userId)) {
+                if (subscription.getId() == null) {
+                    continue;
+                }
+                loaded.add(subscription);
+            }
+            return indexUser(userId, loaded);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * 읽지 않은 사용자의 구독을 전체 스냅샷에서 한 번에 읽어 인덱스 구성
+     * 읽는 동안 쓰기가 끼어들지 않도록 모든 락 스트라이프를 순서대로 잡는다.
+     */
+    private void loadAllUsers() {
+        if (allUsersLoaded) {
+            return;
+        }
+        
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            if (allUsersLoaded) {
+                return;
+            }
+            
+            Map<Long, List<Subscription>> grouped = new LinkedHashMap<>();
+            for (Subscription subscription : subscriptionStore.readSubscriptions()) {
+                if (subscription.getId() == null || subscription.getUserId() == null
+                        || subscriptionsByUser.containsKey(subscription.getUserId())) {
+                    continue;
+                }
+                grouped.computeIfAbsent(subscription.getUserId(), userId -> new ArrayList<>()).add(subscription);
+            }
+            grouped.forEach(this::indexUser);
+            allUsersLoaded = true;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+    
+    /**
+     * 읽어 들인 사용자 구독 목록을 인덱스에 등록 (사용자 락을 잡은 상태에서 호출)
+     */
+    private List<Subscription> indexUser(Long userId, List<Subscription> loaded) {
+        for (Subscription subscription : loaded) {
+            subscriptionsById.put(subscription.getId(), subscription);
+            paymentDateIndex.put(null, subscription);
+        }
+        List<Subscription> userSubscriptions = Collections.unmodifiableList(loaded);
+        aggregatesByUser.put(userId, SubscriptionAggregates.of(loaded));
+        subscriptionsByUser.put(userId, userSubscriptions);
+        return userSubscriptions;
+    }
+    
+    private static List<Subscription> copies(List<Subscription> subscriptions) {
+        List<Subscription> result = new ArrayList<>(subscriptions.size());
+        for (Subscription subscription : subscriptions) {
+            result.add(subscription.copy());
+        }
+        return result;
+    }
+}
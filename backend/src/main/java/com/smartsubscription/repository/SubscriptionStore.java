@@ -0,0 +1,39 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.Subscription;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 구독 영속 저장소 SPI
+ * storage.type 설정으로 구현체를 고른다 (json: JsonFileService, h2: H2DatabaseService).
+ * 메모리 인덱스와 버전 관리는 SubscriptionRepository 가 맡고, 구현체는 읽기/쓰기만 담당한다.
+ */
+public interface SubscriptionStore {
+    
+    /**
+     * 특정 사용자의 구독 목록
+     */
+    List<Subscription> readUserSubscriptions(Long userId);
+    
+    /**
+     * 전체 구독 목록
+     */
+    List<Subscription> readSubscriptions();
+    
+    /**
+     * 특정 사용자의 구독 변경 사항 저장 (추가/수정된 레코드 + 삭제된 ID)
+     */
+    void saveSubscriptionChanges(Long userId, List<Subscription> upserts, Collection<Long> deletedIds);
+    
+    /**
+     * 수정 전 레코드(previous, id -> 레코드)를 함께 넘겨 받는 저장
+     * 변경분만 기록할 수 있는 구현체는 재정의하고, 기본 구현은 레코드 전체를 저장한다.
+     */
+    default void saveSubscriptionChanges(Long userId, List<Subscription> upserts, Map<Long, Subscription> previous,
+                                         Collection<Long> deletedIds) {
+        saveSubscriptionChanges(userId, upserts, deletedIds);
+    }
+}
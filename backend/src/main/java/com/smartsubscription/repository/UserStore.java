@@ -0,0 +1,41 @@
+package com.smartsubscription.repository;
+
+import com.smartsubscription.model.User;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 사용자 영속 저장소 SPI
+ * storage.type 설정으로 구현체를 고른다 (json: JsonFileService, h2: H2DatabaseService).
+ * 이메일은 대소문자/앞뒤 공백을 구분하지 않는다 (normalizeEmail 기준으로 조회 및 중복 확인).
+ */
+public interface UserStore {
+    
+    /**
+     * 이메일로 사용자 조회 (없으면 null)
+     */
+    User findUserByEmail(String email);
+    
+    /**
+     * ID 로 사용자 조회 (없으면 null)
+     */
+    User findUserById(Long userId);
+    
+    /**
+     * 전체 사용자 목록
+     */
+    List<User> readUsers();
+    
+    /**
+     * 사용자 추가 (같은 이메일의 사용자가 이미 있으면 저장하지 않고 false)
+     */
+    boolean insertUser(User user);
+    
+    /**
+     * 이메일 비교 키 (앞뒤 공백 제거 + 소문자)
+     */
+    static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,201 @@
+package com.smartsubscription.service;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smartsubscription.model.Subscription;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 샤드 스냅샷의 바이너리 사본 (shard-XX.N.snap, N 은 세대 번호)
+ * 
+ * 파일 구조 (빅엔디언):
+ * <pre>
+ * 헤더      : magic "SSNP"(4) | 포맷 버전(int) | 원본 JSON 크기(long) | 원본 JSON 수정 시각(long)
+ *             | 사용자 수(int) | 레코드 수(int)
+ * 사용자 색인: [userId(long) | 첫 레코드 번호(int) | 레코드 수(int)] x 사용자 수 (userId 오름차순)
+ * 레코드 색인: [오프셋(long) | 길이(int)] x 레코드 수 (사용자별로 연속)
+ * 레코드 본문: 압축(compact) JSON 바이트
+ * </pre>
+ * FileChannel.map 으로 매핑한 뒤 사용자 색인을 이진 탐색하므로,
+ * 요청한 사용자의 레코드만 역직렬화하고 나머지 레코드는 읽지 않는다.
+ * JSON 스냅샷이 원본이며 이 파일은 기동 직후 조회를 빠르게 하기 위한 보조 사본이다.
+ * 매핑이 남아 있는 파일은 Windows 에서 덮어쓰거나 지울 수 없으므로, 다시 만들 때는 기존 파일을 교체하지 않고
+ * 다음 세대 파일에 쓴다.
+ */
+public class BinarySnapshot {
+    
+    private static final int MAGIC = 0x53534E50; // "SSNP"
+    private static final int FORMAT_VERSION = 1;
+    
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4;
+    private static final int USER_ENTRY_SIZE = 8 + 4 + 4;
+    private static final int RECORD_ENTRY_SIZE = 8 + 4;
+    
+    private final MappedByteBuffer buffer;
+    private final long sourceSize;
+    private final long sourceModified;
+    private final int userCount;
+    private final int recordCount;
+    
+    private BinarySnapshot(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("바이너리 스냅샷 형식이 아닙니다.");
+        }
+        this.sourceSize = buffer.getLong(8);
+        this.sourceModified = buffer.getLong(16);
+        this.userCount = buffer.getInt(24);
+        this.recordCount = buffer.getInt(28);
+    }
+    
+    /**
+     * 샤드의 세대별 스냅샷 파일 (0 세대는 세대 번호가 없는 이전 이름 shard-XX.snap)
+     */
+    public static Path file(Path dir, String shardName, long generation) {
+        return dir.resolve(generation == 0 ? shardName + ".snap" : shardName + "." + generation + ".snap");
+    }
+    
+    /**
+     * 디렉토리에 있는 샤드의 스냅샷 세대 번호 (오름차순)
+     */
+    public static List<Long> generations(Path dir, String shardName) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return generations;
+        }
+        Pattern pattern = Pattern.compile(Pattern.quote(shardName) + "(?:\\.(\\d+))?\\.snap");
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, shardName + "*.snap")) {
+            for (Path file : files) {
+                Matcher matcher = pattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    generations.add(matcher.group(1) != null ? Long.parseLong(matcher.group(1)) : 0L);
+                }
+            }
+        }
+        Collections.sort(generations);
+        return generations;
+    }
+    
+    /**
+     * 스냅샷 파일을 읽기 전용으로 매핑
+     */
+    public static BinarySnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new BinarySnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+    
+    /**
+     * 레코드 목록을 바이너리 스냅샷 바이트로 인코딩
+     * 
+     * @param sourceSize     같은 내용을 담은 JSON 스냅샷의 크기
+     * @param sourceModified 같은 내용을 담은 JSON 스냅샷의 수정 시각 (ms)
+     */
+    public static byte[] encode(List<Subscription> records, ObjectWriter recordWriter,
+                                long sourceSize, long sourceModified) throws IOException {
+        // userId 별로 묶기 (색인을 이진 탐색할 수 있도록 정렬)
+        TreeMap<Long, List<byte[]>> byUser = new TreeMap<>();
+        for (Subscription record : records) {
+            if (record.getUserId() == null) {
+                continue;
+            }
+            byUser.computeIfAbsent(record.getUserId(), key -> new ArrayList<>()).add(recordWriter.writeValueAsBytes(record));
+        }
+        
+        int users = byUser.size();
+        int total = 0;
+        long payloadSize = 0;
+        for (List<byte[]> userRecords : byUser.values()) {
+            total += userRecords.size();
+            for (byte[] bytes : userRecords) {
+                payloadSize += bytes.length;
+            }
+        }
+        
+        long indexEnd = HEADER_SIZE + (long) users * USER_ENTRY_SIZE + (long) total * RECORD_ENTRY_SIZE;
+        ByteBuffer out = ByteBuffer.allocate(Math.toIntExact(indexEnd + payloadSize));
+        out.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(sourceSize).putLong(sourceModified)
+           .putInt(users).putInt(total);
+        
+        int recordNo = 0;
+        for (Map.Entry<Long, List<byte[]>> entry : byUser.entrySet()) {
+            out.putLong(entry.getKey()).putInt(recordNo).putInt(entry.getValue().size());
+            recordNo += entry.getValue().size();
+        }
+        
+        long offset = indexEnd;
+        for (List<byte[]> userRecords : byUser.values()) {
+            for (byte[] bytes : userRecords) {
+                out.putLong(offset).putInt(bytes.length);
+                offset += bytes.length;
+            }
+        }
+        
+        for (List<byte[]> userRecords : byUser.values()) {
+            for (byte[] bytes : userRecords) {
+                out.put(bytes);
+            }
+        }
+        return out.array();
+    }
+    
+    /**
+     * 주어진 JSON 스냅샷 상태(크기, 수정 시각)로부터 만들어진 사본인지 확인
+     */
+    public boolean matches(long jsonSize, long jsonModified) {
+        return sourceSize == jsonSize && sourceModified == jsonModified;
+    }
+    
+    public int getRecordCount() {
+        return recordCount;
+    }
+    
+    /**
+     * 특정 사용자의 레코드만 역직렬화 (recordReader 가 만드는 타입으로)
+     */
+    public <T> List<T> readUser(long userId, ObjectReader recordReader) throws IOException {
+        List<T> result = new ArrayList<>();
+        
+        int low = 0;
+        int high = userCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = HEADER_SIZE + mid * USER_ENTRY_SIZE;
+            long midUserId = buffer.getLong(entry);
+            if (midUserId < userId) {
+                low = mid + 1;
+            } else if (midUserId > userId) {
+                high = mid - 1;
+            } else {
+                int first = buffer.getInt(entry + 8);
+                int count = buffer.getInt(entry + 12);
+                int recordIndex = HEADER_SIZE + userCount * USER_ENTRY_SIZE;
+                for (int i = first; i < first + count; i++) {
+                    int recordEntry = recordIndex + i * RECORD_ENTRY_SIZE;
+                    int offset = (int) buffer.getLong(recordEntry);
+                    int length = buffer.getInt(recordEntry + 8);
+                    byte[] bytes = new byte[length];
+                    buffer.get(offset, bytes);
+                    result.add(recordReader.readValue(bytes));
+                }
+                break;
+            }
+        }
+        return result;
+    }
+}
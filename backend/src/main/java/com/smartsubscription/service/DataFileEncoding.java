@@ -0,0 +1,43 @@
+package com.smartsubscription.service;
+
+/**
+ * 데이터 파일 하나의 저장 방식 (형식 + gzip 여부)
+ * 설정 값은 "형식" 또는 "형식+gzip" (예: json-pretty, json, smile+gzip, cbor)
+ */
+public final class DataFileEncoding {
+    
+    private static final String GZIP_SUFFIX = "+gzip";
+    
+    private final DataFileFormat format;
+    private final boolean gzip;
+    
+    public DataFileEncoding(DataFileFormat format, boolean gzip) {
+        this.format = format;
+        this.gzip = gzip;
+    }
+    
+    /**
+     * 설정 값 해석
+     */
+    public static DataFileEncoding parse(String spec) {
+        String value = spec.trim();
+        boolean gzip = value.endsWith(GZIP_SUFFIX);
+        if (gzip) {
+            value = value.substring(0, value.length() - GZIP_SUFFIX.length());
+        }
+        return new DataFileEncoding(DataFileFormat.fromConfigName(value), gzip);
+    }
+    
+    public DataFileFormat getFormat() {
+        return format;
+    }
+    
+    public boolean isGzip() {
+        return gzip;
+    }
+    
+    @Override
+    public String toString() {
+        return format.getConfigName() + (gzip ? GZIP_SUFFIX : "");
+    }
+}
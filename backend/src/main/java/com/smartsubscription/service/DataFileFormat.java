@@ -0,0 +1,64 @@
+package com.smartsubscription.service;
+
+import java.util.Locale;
+
+/**
+ * 데이터 파일 저장 형식
+ * 
+ * 읽을 때는 파일 앞부분 바이트로 형식을 판별하므로 저장 형식을 바꿔도 기존 파일은 그대로 읽힌다.
+ * <pre>
+ * gzip  : 1F 8B
+ * Smile : ':' ')' '\n'
+ * CBOR  : D9 D9 F7 (self-describe 태그, 기록 시 항상 붙임) 또는 배열/맵 시작 바이트
+ * 그 외 : JSON
+ * </pre>
+ */
+public enum DataFileFormat {
+    JSON_PRETTY("json-pretty"),
+    JSON("json"),
+    SMILE("smile"),
+    CBOR("cbor");
+    
+    private final String configName;
+    
+    DataFileFormat(String configName) {
+        this.configName = configName;
+    }
+    
+    public String getConfigName() {
+        return configName;
+    }
+    
+    public static DataFileFormat fromConfigName(String name) {
+        for (DataFileFormat format : values()) {
+            if (format.configName.equals(name.trim().toLowerCase(Locale.ROOT))) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 저장 형식: " + name);
+    }
+    
+    /**
+     * gzip 으로 압축된 내용인지 확인
+     */
+    public static boolean isGzip(byte[] header, int length) {
+        return length >= 2 && (header[0] & 0xFF) == 0x1F && (header[1] & 0xFF) == 0x8B;
+    }
+    
+    /**
+     * 압축을 푼 내용의 앞부분으로 형식 판별 (JSON 은 들여쓰기 여부를 구분하지 않으므로 JSON 으로 반환)
+     */
+    public static DataFileFormat detect(byte[] header, int length) {
+        if (length >= 3 && header[0] == ':' && header[1] == ')' && header[2] == '\n') {
+            return SMILE;
+        }
+        if (length >= 1) {
+            int first = header[0] & 0xFF;
+            // CBOR self-describe 태그(0xD9D9F7) 또는 major type 4/5 (배열/맵)
+            if (first == 0xD9 || (first >= 0x80 && first <= 0xBF)) {
+                return CBOR;
+            }
+        }
+        return JSON;
+    }
+}
@@ -0,0 +1,259 @@
+package com.smartsubscription.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 환율 스냅샷과 통화 환산
+ * 
+ * 외부 환율 API 결과를 메모리에 스냅샷으로 두고 모든 요청이 함께 쓴다 (refresh-interval 마다 한 요청만 다시 받음).
+ * 받은 환율이 이전과 같으면 스냅샷 버전을 올리지 않으므로, 버전별로 캐시한 환산 결과는 환율이 바뀔 때만 버려진다.
+ * 외부 API 를 쓸 수 없으면 마지막 스냅샷을 계속 쓰고, 한 번도 받지 못했으면 고정 폴백 환율을 쓴다.
+ */
+@Service
+public class ExchangeRateService {
+    
+    // 스냅샷 기준 통화 (환율은 1 USD 에 대한 각 통화 금액)
+    public static final String BASE = "USD";
+    
+    // GET /exchange-rates 가 돌려주는 통화 (환산에는 받은 환율 전체를 씀)
+    public static final List<String> PUBLISHED_CURRENCIES = List.of("USD", "KRW", "EUR", "JPY", "CNY");
+    
+    // 외부 API 를 쓸 수 없을 때의 환율 (PUBLISHED_CURRENCIES 는 항상 포함)
+    private static final Map<String, BigDecimal> FALLBACK_RATES = Map.of(
+        "USD", BigDecimal.ONE,
+        "KRW", new BigDecimal("1350"),
+        "EUR", new BigDecimal("0.92"),
+        "JPY", new BigDecimal("150"),
+        "CNY", new BigDecimal("7.2"));
+    
+    // 폴백 환율을 쓰는 동안 외부 API 를 다시 시도하는 간격
+    private static final long RETRY_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+    
+    // 환산 결과 캐시의 최대 항목 수 (넘으면 비우고 다시 채움)
+    private static final int MAX_CACHE_ENTRIES = 10_000;
+    
+    /**
+     * 환율 스냅샷 (version 은 환율이 바뀔 때만 증가)
+     */
+    public record RateSnapshot(long version, String date, Map<String, BigDecimal> rates, String source, long fetchedAt) {
+        
+        public boolean supports(String currency) {
+            return currency != null && rates.containsKey(currency);
+        }
+    }
+    
+    /**
+     * 한 통화로 환산한 합계 (unconverted: 환율이 없어 빠진 통화별 금액)
+     */
+    public record Conversion(String currency, BigDecimal amount, Map<String, BigDecimal> unconverted) {
+    }
+    
+    /**
+     * 한 스냅샷 버전에 대한 환산 결과 캐시 (key 별로 원본 데이터 태그와 함께 보관)
+     */
+    private record ConversionCache(long version, Map<String, CachedValue> values) {
+    }
+    
+    private record CachedValue(String dataTag, Object value) {
+    }
+    
+    private final RestTemplate restTemplate;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    
+    @Value("${exchange-rates.url:https://api.exchangerate-api.com/v4/latest/USD}")
+    private String url;
+    
+    @Value("${exchange-rates.refresh-interval-minutes:60}")
+    private long refreshIntervalMinutes;
+    
+    @Value("${exchange-rates.base-currency:KRW}")
+    private String defaultCurrency;
+    
+    private volatile RateSnapshot snapshot;
+    private volatile ConversionCache cache = new ConversionCache(0, new ConcurrentHashMap<>());
+    
+    public ExchangeRateService() {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) TimeUnit.SECONDS.toMillis(3));
+        requestFactory.setReadTimeout((int) TimeUnit.SECONDS.toMillis(5));
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+    
+    /**
+     * 기본 환산 통화 (요청에 통화가 없을 때)
+     */
+    public String getDefaultCurrency() {
+        return normalize(defaultCurrency);
+    }
+    
+    /**
+     * 현재 환율 스냅샷 (오래됐으면 한 요청만 외부 API 를 다시 부르고 나머지는 기존 스냅샷을 씀)
+     */
+    public RateSnapshot getSnapshot() {
+        RateSnapshot current = snapshot;
+        if (current != null && !isStale(current)) {
+            return current;
+        }
+        if (current == null) {
+            refreshLock.lock();
+        } else if (!refreshLock.tryLock()) {
+            return current;
+        }
+        try {
+            current = snapshot;
+            if (current == null || isStale(current)) {
+                current = refresh(current);
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+    
+    /**
+     * 금액을 다른 통화로 환산 (소수 자릿수는 대상 통화 기준, 환율이 없는 통화면 null)
+     */
+    public BigDecimal convert(RateSnapshot rates, BigDecimal amount, String from, String to) {
+        String source = normalize(from);
+        String target = normalize(to);
+        if (amount == null || !rates.supports(source) || !rates.supports(target)) {
+            return null;
+        }
+        BigDecimal converted = source.equals(target) ? amount
+            : amount.multiply(rates.rates().get(target)).divide(rates.rates().get(source), MathContext.DECIMAL64);
+        return converted.setScale(fractionDigits(target), RoundingMode.HALF_UP);
+    }
+    
+    /**
+     * 통화별 금액 합계를 한 통화로 환산한 합계 (환율이 없는 통화는 unconverted 에 남김)
+     */
+    public Conversion convertAll(RateSnapshot rates, Map<String, BigDecimal> amounts, String to) {
+        String target = normalize(to);
+        BigDecimal total = BigDecimal.ZERO.setScale(fractionDigits(target));
+        Map<String, BigDecimal> unconverted = new TreeMap<>();
+        for (Map.Entry<String, BigDecimal> entry : amounts.entrySet()) {
+            BigDecimal converted = convert(rates, entry.getValue(), entry.getKey(), target);
+            if (converted != null) {
+                total = total.add(converted);
+            } else {
+                unconverted.merge(entry.getKey(), entry.getValue(), BigDecimal::add);
+            }
+        }
+        return new Conversion(target, total, Collections.unmodifiableMap(unconverted));
+    }
+    
+    /**
+     * 환산 결과 캐시 조회 (현재 스냅샷 버전과 dataTag 가 같을 때만 재사용, 아니면 compute 로 다시 계산)
+     * 환율 버전이 바뀌면 캐시 전체를 버린다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cached(String key, String dataTag, Function<RateSnapshot, T> compute) {
+        RateSnapshot rates = getSnapshot();
+        ConversionCache current = cache;
+        if (current.version() != rates.version()) {
+            current = new ConversionCache(rates.version(), new ConcurrentHashMap<>());
+            cache = current;
+        }
+        CachedValue cachedValue = current.values().get(key);
+        if (cachedValue != null && cachedValue.dataTag().equals(dataTag)) {
+            return (T) cachedValue.value();
+        }
+        T value = compute.apply(rates);
+        if (current.values().size() >= MAX_CACHE_ENTRIES) {
+            current.values().clear();
+        }
+        current.values().put(key, new CachedValue(dataTag, value));
+        return value;
+    }
+    
+    /**
+     * 통화 코드 정규화 (대문자, 비어 있으면 기본 통화)
+     */
+    public String normalize(String currency) {
+        if (currency == null || currency.isBlank()) {
+            return defaultCurrency.trim().toUpperCase(Locale.ROOT);
+        }
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+    
+    private boolean isStale(RateSnapshot current) {
+        long interval = "fallback".equals(current.source())
+            ? RETRY_INTERVAL_MS : TimeUnit.MINUTES.toMillis(refreshIntervalMinutes);
+        return System.currentTimeMillis() - current.fetchedAt() >= interval;
+    }
+    
+    /**
+     * 외부 API 에서 환율을 다시 받음 (실패하면 이전 스냅샷, 없으면 폴백 환율)
+     */
+    @SuppressWarnings("unchecked")
+    private RateSnapshot refresh(RateSnapshot previous) {
+        long now = System.currentTimeMillis();
+        Map<String, BigDecimal> rates = new TreeMap<>(FALLBACK_RATES);
+        String date;
+        String source;
+        try {
+            Map<String, Object> apiResponse = restTemplate.getForObject(url, Map.class);
+            if (apiResponse == null || !(apiResponse.get("rates") instanceof Map)) {
+                throw new IllegalStateException("환율 API 응답에 rates 가 없습니다.");
+            }
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) apiResponse.get("rates")).entrySet()) {
+                BigDecimal rate = toRate(entry.getValue());
+                if (rate != null) {
+                    rates.put(entry.getKey().toUpperCase(Locale.ROOT), rate);
+                }
+            }
+            rates.put(BASE, BigDecimal.ONE);
+            date = apiResponse.get("date") != null ? apiResponse.get("date").toString() : LocalDate.now().toString();
+            source = "external_api";
+        } catch (Exception e) {
+            if (previous != null && !"fallback".equals(previous.source())) {
+                System.err.println("환율 갱신 실패, 이전 환율 사용: " + e.getMessage());
+                return new RateSnapshot(previous.version(), previous.date(), previous.rates(), previous.source(), now);
+            }
+            System.err.println("환율 조회 실패, 폴백 환율 사용: " + e.getMessage());
+            date = LocalDate.now().toString();
+            source = "fallback";
+        }
+        
+        Map<String, BigDecimal> frozen = Collections.unmodifiableMap(rates);
+        long version = previous == null ? 1 : previous.rates().equals(frozen) ? previous.version() : previous.version() + 1;
+        return new RateSnapshot(version, date, frozen, source, now);
+    }
+    
+    private static BigDecimal toRate(Object value) {
+        try {
+            BigDecimal rate = value instanceof Number ? new BigDecimal(value.toString()) : new BigDecimal(String.valueOf(value));
+            return rate.signum() > 0 ? rate : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    private static int fractionDigits(String currency) {
+        try {
+            int digits = Currency.getInstance(currency).getDefaultFractionDigits();
+            return digits >= 0 ? digits : 2;
+        } catch (IllegalArgumentException e) {
+            return 2;
+        }
+    }
+}
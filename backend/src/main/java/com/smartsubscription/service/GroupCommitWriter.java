@@ -0,0 +1,424 @@
+package com.smartsubscription.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 그룹 커밋 파일 기록기
+ * 
+ * 짧은 시간(linger) 안에 들어온 여러 요청의 파일 쓰기를 한 배치로 모아 파일마다 한 번만 쓰고 한 번만 fsync 한다.
+ * 같은 파일에 대한 추가(append)는 이어 붙이고, 전체 교체(replace)는 마지막 내용만 기록한다.
+ * 호출자는 자신의 변경이 포함된 배치가 디스크에 반영된 뒤에 반환된다.
+ * 
+ * write-behind 모드(storage.write-behind.enabled)에서는 요청 경로의 쓰기(enqueueAppend / enqueueReplace)를
+ * 큐에 넣기만 하고 바로 반환하며, 기록 스레드가 최대 max-lag-ms 만큼 모아 한 번에 기록한다.
+ * 대기 중인 쓰기가 queue-capacity 를 넘으면 StorageBusyException 으로 거절하고,
+ * 종료 시에는 남은 쓰기를 모두 기록한다. 컴팩션 등 내부 쓰기(append / replace / move)는 항상 기록될 때까지 기다린다.
+ * 기다리는 호출자가 없는 쓰기는 실패하면 버리지 않고 큐 맨 앞에 다시 넣어 기록될 때까지 재시도한다.
+ */
+@Component
+public class GroupCommitWriter {
+    
+    private enum Operation { APPEND, REPLACE, MOVE }
+    
+    /**
+     * 대기 중인 파일 쓰기 요청
+     */
+    private static class PendingWrite {
+        final Operation operation;
+        final Path file;
+        final byte[] data;
+        final Path target;
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        
+        // 호출자가 기록을 기다리지 않는 요청 (write-behind)
+        boolean deferred;
+        
+        // 기록 실패 횟수 (deferred 요청만 재시도)
+        int failures;
+        
+        PendingWrite(Operation operation, Path file, byte[] data, Path target) {
+            this.operation = operation;
+            this.file = file;
+            this.data = data;
+            this.target = target;
+        }
+    }
+    
+    // 기록 스레드 종료 신호 (앞서 들어온 요청을 모두 기록한 뒤 종료)
+    private static final PendingWrite SHUTDOWN = new PendingWrite(null, null, null, null);
+    
+    // deferred 요청 기록이 실패했을 때 다시 시도하기 전 대기 시간
+    private static final long RETRY_DELAY_MS = 1000;
+    
+    // 종료 시 남은 요청 기록을 시도하는 횟수
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+    
+    // 실패한 요청을 순서를 유지한 채 맨 앞에 다시 넣을 수 있도록 양방향 큐
+    private final BlockingDeque<PendingWrite> queue = new LinkedBlockingDeque<>();
+    
+    @Value("${storage.group-commit.enabled:true}")
+    private boolean enabled;
+    
+    // 한 배치에 담을 최대 요청 수
+    @Value("${storage.group-commit.batch-size:256}")
+    private int batchSize;
+    
+    // 첫 요청 이후 다음 요청을 기다리는 최대 시간
+    @Value("${storage.group-commit.linger-ms:2}")
+    private long lingerMs;
+    
+    @Value("${storage.write-behind.enabled:false}")
+    private boolean writeBehind;
+    
+    // write-behind 모드의 최대 지연: 첫 요청 이후 배치를 모으는 시간
+    @Value("${storage.write-behind.max-lag-ms:200}")
+    private long maxLagMs;
+    
+    // write-behind 모드에서 기록을 기다릴 수 있는 최대 요청 수
+    @Value("${storage.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    // 큐에 넣고 기다리지 않은 요청 중 아직 기록되지 않은 수
+    private final AtomicInteger deferredPending = new AtomicInteger();
+    
+    // 큐가 가득 차 거절한 요청 수
+    private final AtomicLong rejectedWrites = new AtomicLong();
+    
+    private Thread committer;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        if (!enabled && !writeBehind) {
+            return;
+        }
+        if (writeBehind) {
+            System.out.println("write-behind 모드: 최대 지연 " + maxLagMs + "ms, 대기열 " + queueCapacity + "건");
+        }
+        running = true;
+        committer = new Thread(this::commitLoop, "group-commit-writer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+    
+    /**
+     * 기록 스레드 종료
+     * 기록 중인 FileChannel 이 닫히지 않도록 인터럽트 대신 종료 신호를 큐에 넣고, 앞선 배치를 모두 기록할 때까지 기다린다.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (committer == null) {
+            return;
+        }
+        running = false;
+        queue.add(SHUTDOWN);
+        committer.join(TimeUnit.SECONDS.toMillis(10));
+        if (committer.isAlive()) {
+            System.err.println("그룹 커밋 기록 스레드가 10초 안에 끝나지 않았습니다.");
+        }
+        
+        // 종료 시점에 남은 요청(재시도 대기 포함)까지 기록
+        List<PendingWrite> remaining = drain();
+        if (!remaining.isEmpty()) {
+            System.out.println("종료 전 남은 파일 쓰기 " + remaining.size() + "건 기록");
+        }
+        for (int attempt = 1; !remaining.isEmpty(); attempt++) {
+            remaining = writeBatch(remaining, attempt < SHUTDOWN_ATTEMPTS);
+            if (!remaining.isEmpty()) {
+                Thread.sleep(RETRY_DELAY_MS);
+            }
+        }
+    }
+    
+    /**
+     * 요청 경로의 파일 끝 추가 (write-behind 모드면 큐에 넣고 바로 반환, 아니면 append 와 같음)
+     */
+    public void enqueueAppend(Path file, byte[] data) {
+        defer(new PendingWrite(Operation.APPEND, file, data, null));
+    }
+    
+    /**
+     * 요청 경로의 파일 전체 교체 (write-behind 모드면 큐에 넣고 바로 반환, 아니면 replace 와 같음)
+     */
+    public void enqueueReplace(Path file, byte[] data) {
+        defer(new PendingWrite(Operation.REPLACE, file, data, null));
+    }
+    
+    /**
+     * 기록되지 않은 채 대기 중인 전체 쓰기 요청 수
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * write-behind 로 받아 두고 아직 디스크에 반영되지 않은 요청 수
+     */
+    public int getDeferredPending() {
+        return deferredPending.get();
+    }
+    
+    /**
+     * 대기열이 가득 차 거절한 요청 수
+     */
+    public long getRejectedWrites() {
+        return rejectedWrites.get();
+    }
+    
+    /**
+     * 파일 끝에 내용 추가 (배치가 기록될 때까지 대기)
+     */
+    public void append(Path file, byte[] data) {
+        await(submit(new PendingWrite(Operation.APPEND, file, data, null)));
+    }
+    
+    /**
+     * 파일 전체 교체 (임시 파일에 쓴 뒤 원자적으로 교체, 배치가 기록될 때까지 대기)
+     */
+    public void replace(Path file, byte[] data) {
+        await(submit(new PendingWrite(Operation.REPLACE, file, data, null)));
+    }
+    
+    /**
+     * 파일 이동 (앞서 들어온 같은 파일의 쓰기가 모두 기록된 뒤 수행)
+     */
+    public void move(Path source, Path target) {
+        await(submit(new PendingWrite(Operation.MOVE, source, null, target)));
+    }
+    
+    private void defer(PendingWrite write) {
+        // 종료 중이면 재시도할 기록 스레드가 없으므로 기록될 때까지 기다려 실패를 호출자에게 알림
+        if (!writeBehind || !running) {
+            await(submit(write));
+            return;
+        }
+        if (deferredPending.incrementAndGet() > queueCapacity) {
+            deferredPending.decrementAndGet();
+            rejectedWrites.incrementAndGet();
+            throw new StorageBusyException("저장 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요.");
+        }
+        write.deferred = true;
+        // 실패한 요청은 기록 스레드가 재시도하므로 여기서는 대기 수만 줄임
+        write.future.whenComplete((result, error) -> deferredPending.decrementAndGet());
+        submit(write);
+    }
+    
+    private CompletableFuture<Void> submit(PendingWrite write) {
+        if (!running) {
+            // 그룹 커밋을 끈 경우(또는 종료 중) 호출자 스레드에서 바로 기록
+            writeBatch(List.of(write), false);
+            return write.future;
+        }
+        queue.add(write);
+        if (!running) {
+            // 종료와 경합해 큐에 남은 요청은 호출자가 직접 기록
+            List<PendingWrite> remaining = drain();
+            if (!remaining.isEmpty()) {
+                writeBatch(remaining, false);
+            }
+        }
+        return write.future;
+    }
+    
+    /**
+     * 큐에 남은 요청 꺼내기 (종료 신호는 기록 스레드가 받도록 큐에 남겨 둠)
+     */
+    private List<PendingWrite> drain() {
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (remaining.remove(SHUTDOWN) && committer != null && committer.isAlive()) {
+            queue.add(SHUTDOWN);
+        }
+        return remaining;
+    }
+    
+    private void await(CompletableFuture<Void> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("데이터 저장 대기 중 중단됨", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("데이터 저장 실패", e.getCause());
+        }
+    }
+    
+    private void commitLoop() {
+        List<PendingWrite> batch = new ArrayList<>();
+        boolean stopping = false;
+        while (!stopping) {
+            try {
+                PendingWrite first = queue.take();
+                if (first == SHUTDOWN) {
+                    break;
+                }
+                batch.add(first);
+                // 지연 기록만 있으면 최대 지연(max-lag-ms)까지 모으고, 기다리는 호출자가 있으면 linger-ms 안에 기록
+                long lingerDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                long deadline = first.deferred ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxLagMs) : lingerDeadline;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        break;
+                    }
+                    PendingWrite next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    if (!next.deferred) {
+                        deadline = Math.min(deadline, Math.max(lingerDeadline, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs)));
+                    }
+                }
+            } catch (InterruptedException e) {
+                // 종료는 SHUTDOWN 으로만 하므로 이미 꺼낸 요청을 기록하고 계속
+            }
+            // 배치를 모으는 중에 받은 종료 신호: 이 배치까지 기록하고 종료
+            stopping = batch.remove(SHUTDOWN);
+            
+            if (!batch.isEmpty()) {
+                List<PendingWrite> failed = writeBatch(batch, true);
+                batch = new ArrayList<>();
+                if (!failed.isEmpty()) {
+                    // 같은 파일의 이후 요청보다 먼저 기록되도록 원래 순서대로 맨 앞에 다시 넣음
+                    for (int i = failed.size() - 1; i >= 0; i--) {
+                        queue.addFirst(failed.get(i));
+                    }
+                    if (!stopping) {
+                        try {
+                            Thread.sleep(RETRY_DELAY_MS);
+                        } catch (InterruptedException e) {
+                            // 바로 다시 시도
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 배치 기록: 파일별로 요청을 순서대로 합친 뒤 파일마다 한 번씩 기록
+     * 기록하지 못한 요청 중 기다리는 호출자가 있으면 실패로 완료하고, deferred 요청은 retryDeferred 이면 돌려준다.
+     * 
+     * @return 다시 시도할 deferred 요청 (파일별로 원래 순서)
+     */
+    private List<PendingWrite> writeBatch(List<PendingWrite> batch, boolean retryDeferred) {
+        List<PendingWrite> retry = new ArrayList<>();
+        Map<Path, List<PendingWrite>> byFile = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            byFile.computeIfAbsent(write.file, key -> new ArrayList<>()).add(write);
+        }
+        
+        for (Map.Entry<Path, List<PendingWrite>> entry : byFile.entrySet()) {
+            Path file = entry.getKey();
+            List<PendingWrite> writes = entry.getValue();
+            List<PendingWrite> pending = new ArrayList<>();
+            try {
+                byte[] replacement = null;
+                ByteArrayOutputStream appended = new ByteArrayOutputStream();
+                for (PendingWrite write : writes) {
+                    pending.add(write);
+                    if (write.operation == Operation.REPLACE) {
+                        replacement = write.data;
+                        appended.reset();
+                    } else if (write.operation == Operation.APPEND) {
+                        if (write.failures > 0) {
+                            // 실패한 기록이 줄 중간에서 끊겼을 수 있으므로 새 줄에서 다시 씀 (빈 줄은 로그 재생 시 무시됨)
+                            appended.write('\n');
+                        }
+                        appended.write(write.data);
+                    } else {
+                        flush(file, replacement, appended.toByteArray());
+                        replacement = null;
+                        appended.reset();
+                        Files.move(file, write.target, StandardCopyOption.ATOMIC_MOVE);
+                        complete(pending);
+                    }
+                }
+                flush(file, replacement, appended.toByteArray());
+                complete(pending);
+            } catch (IOException | RuntimeException e) {
+                // 예외가 난 요청 이후의 요청도 기록되지 않았으므로 함께 처리
+                int retried = 0;
+                int lost = 0;
+                for (PendingWrite write : writes) {
+                    if (write.future.isDone()) {
+                        continue;
+                    }
+                    write.failures++;
+                    if (write.deferred && retryDeferred) {
+                        retry.add(write);
+                        retried++;
+                    } else {
+                        write.future.completeExceptionally(e);
+                        lost += write.deferred ? 1 : 0;
+                    }
+                }
+                System.err.println("파일 기록 실패: " + file + " - " + e.getMessage()
+                    + (retried == 0 ? "" : " (응답을 마친 변경 " + retried + "건 재시도 예정)"));
+                if (lost > 0) {
+                    System.err.println("응답을 마친 변경 " + lost + "건을 기록하지 못했습니다: " + file);
+                }
+            }
+        }
+        return retry;
+    }
+    
+    private void flush(Path file, byte[] replacement, byte[] appended) throws IOException {
+        if (replacement != null) {
+            Path temp = Paths.get(file + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, replacement);
+                writeFully(channel, appended);
+                channel.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } else if (appended.length > 0) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                writeFully(channel, appended);
+                channel.force(false);
+            }
+        }
+    }
+    
+    private void writeFully(FileChannel channel, byte[] data) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+    
+    private void complete(List<PendingWrite> writes) {
+        for (PendingWrite write : writes) {
+            write.future.complete(null);
+        }
+        writes.clear();
+    }
+}
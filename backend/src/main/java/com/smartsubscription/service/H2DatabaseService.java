@@ -0,0 +1,357 @@
+package com.smartsubscription.service;
+
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.User;
+import com.smartsubscription.repository.SubscriptionStore;
+import com.smartsubscription.repository.UserStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * 내장 H2 데이터베이스 기반 저장소 (storage.type=h2)
+ * 
+ * 같은 프로세스 안에서 파일 모드로 동작하며 별도 서버가 필요 없다.
+ * 사용자는 컬럼별로, 구독은 조회 조건 컬럼(id, user_id, next_payment_date) + 레코드 JSON 본문으로 저장한다.
+ * id 기본 키, user_id / email_key(소문자 이메일) 인덱스로 조회하며 변경은 해당 행만 MERGE / DELETE 한다.
+ * 테이블이 비어 있으면 기동 시 기존 JSON 데이터 파일을 한 번 가져온다.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.type", havingValue = "h2")
+public class H2DatabaseService implements SubscriptionStore, UserStore {
+    
+    // H2 의 중복 키 오류 SQLState
+    private static final String DUPLICATE_KEY = "23505";
+    
+    // 전체 조회 시 한 번에 가져오는 행 수
+    private static final int FETCH_SIZE = 256;
+    
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS users ("
+            + " id BIGINT PRIMARY KEY,"
+            + " name VARCHAR(255),"
+            + " email VARCHAR(320) NOT NULL,"
+            + " password VARCHAR(255),"
+            + " phone_number VARCHAR(50),"
+            + " notification_enabled BOOLEAN,"
+            + " email_notification BOOLEAN,"
+            + " push_notification BOOLEAN,"
+            + " created_at TIMESTAMP,"
+            + " updated_at TIMESTAMP)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email ON users (email)",
+        // 대소문자 구분 없는 이메일 조회/중복 확인용 (UserStore.normalizeEmail 과 같은 규칙)
+        "ALTER TABLE users ADD COLUMN IF NOT EXISTS email_key VARCHAR(320) GENERATED ALWAYS AS (LOWER(TRIM(email)))",
+        "CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email_key ON users (email_key)",
+        // seq: 처음 저장된 순서 (MERGE 로 수정해도 유지되어 목록 순서가 바뀌지 않음)
+        "CREATE TABLE IF NOT EXISTS subscriptions ("
+            + " seq BIGINT GENERATED BY DEFAULT AS IDENTITY,"
+            + " id BIGINT PRIMARY KEY,"
+            + " user_id BIGINT NOT NULL,"
+            + " version BIGINT,"
+            + " next_payment_date DATE,"
+            + " body CLOB NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS idx_subscriptions_user ON subscriptions (user_id, seq)"
+    };
+    
+    private static final String USER_COLUMNS =
+        "id, name, email, password, phone_number, notification_enabled, email_notification, push_notification, created_at, updated_at";
+    
+    private static final String MERGE_SUBSCRIPTION =
+        "MERGE INTO subscriptions (id, user_id, version, next_payment_date, body) KEY (id) VALUES (?, ?, ?, ?, ?)";
+    
+    private final JsonCodec jsonCodec;
+    
+    // 최초 기동 시 기존 데이터 파일을 가져오는 용도
+    private final GroupCommitWriter groupCommitWriter;
+    private final Environment environment;
+    
+    private JdbcConnectionPool pool;
+    
+    @Value("${storage.h2.url:jdbc:h2:file:./data/h2/smart-subscription}")
+    private String url;
+    
+    @Value("${storage.h2.max-connections:10}")
+    private int maxConnections;
+    
+    public H2DatabaseService(JsonCodec jsonCodec, GroupCommitWriter groupCommitWriter, Environment environment) {
+        this.jsonCodec = jsonCodec;
+        this.groupCommitWriter = groupCommitWriter;
+        this.environment = environment;
+    }
+    
+    /**
+     * 커넥션 풀 생성, 스키마 생성, 최초 데이터 가져오기
+     */
+    @PostConstruct
+    public void init() {
+        pool = JdbcConnectionPool.create(url, "sa", "");
+        pool.setMaxConnections(maxConnections);
+        
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            for (String ddl : SCHEMA) {
+                statement.execute(ddl);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("H2 스키마 생성 실패: " + url, e);
+        }
+        
+        importDataFilesIfEmpty();
+    }
+    
+    @PreDestroy
+    public void close() {
+        if (pool != null) {
+            pool.dispose();
+        }
+    }
+    
+    /**
+     * 두 테이블이 모두 비어 있으면 JSON 데이터 파일의 사용자/구독을 가져옴
+     * 대소문자만 다른 중복 이메일은 JSON 저장소처럼 먼저 저장된 사용자만 가져오고 나머지는 건너뛴다.
+     */
+    private void importDataFilesIfEmpty() {
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery(
+                    "SELECT (SELECT COUNT(*) FROM users) + (SELECT COUNT(*) FROM subscriptions)")) {
+                rs.next();
+                if (rs.getLong(1) > 0) {
+                    return;
+                }
+            }
+            
+            JsonFileService jsonFileService = JsonFileService.openForImport(groupCommitWriter, jsonCodec, environment);
+            List<User> users = jsonFileService.readUsers();
+            List<Subscription> subscriptions = jsonFileService.readSubscriptions();
+            
+            connection.setAutoCommit(false);
+            int importedUsers = 0;
+            try (PreparedStatement insertUser = connection.prepareStatement(
+                    "INSERT INTO users (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+                Set<String> emailKeys = new HashSet<>();
+                for (User user : users) {
+                    if (user.getEmail() == null) {
+                        System.err.println("이메일 없는 사용자 건너뜀: " + user.getId());
+                        continue;
+                    }
+                    if (!emailKeys.add(UserStore.normalizeEmail(user.getEmail()))) {
+                        System.err.println("대소문자만 다른 중복 이메일 건너뜀 (먼저 저장된 사용자만 가져옴): " + user.getEmail());
+                        continue;
+                    }
+                    bindUser(insertUser, user);
+                    insertUser.addBatch();
+                    importedUsers++;
+                }
+                insertUser.executeBatch();
+            }
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_SUBSCRIPTION)) {
+                for (Subscription subscription : subscriptions) {
+                    if (subscription.getUserId() == null || subscription.getId() == null) {
+                        continue;
+                    }
+                    bindSubscription(merge, subscription);
+                    merge.addBatch();
+                }
+                merge.executeBatch();
+            }
+            connection.commit();
+            System.out.println("H2 데이터 가져오기 완료 - 사용자 " + importedUsers + "명, 구독 " + subscriptions.size() + "건");
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("H2 데이터 가져오기 실패", e);
+        }
+    }
+    
+    @Override
+    public List<Subscription> readUserSubscriptions(Long userId) {
+        return querySubscriptions("SELECT body FROM subscriptions WHERE user_id = ? ORDER BY seq", userId);
+    }
+    
+    @Override
+    public List<Subscription> readSubscriptions() {
+        return querySubscriptions("SELECT body FROM subscriptions ORDER BY seq", null);
+    }
+    
+    /**
+     * 변경된 행만 한 트랜잭션으로 MERGE / DELETE
+     */
+    @Override
+    public void saveSubscriptionChanges(Long userId, List<Subscription> upserts, Collection<Long> deletedIds) {
+        if (upserts.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
+        
+        try (Connection connection = pool.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (!upserts.isEmpty()) {
+                    try (PreparedStatement merge = connection.prepareStatement(MERGE_SUBSCRIPTION)) {
+                        for (Subscription subscription : upserts) {
+                            bindSubscription(merge, subscription);
+                            merge.addBatch();
+                        }
+                        merge.executeBatch();
+                    }
+                }
+                if (!deletedIds.isEmpty()) {
+                    try (PreparedStatement delete = connection.prepareStatement(
+                            "DELETE FROM subscriptions WHERE id = ? AND user_id = ?")) {
+                        for (Long id : deletedIds) {
+                            delete.setLong(1, id);
+                            delete.setLong(2, userId);
+                            delete.addBatch();
+                        }
+                        delete.executeBatch();
+                    }
+                }
+                connection.commit();
+            } catch (SQLException | IOException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("H2 구독 저장 실패: userId=" + userId + " - " + e.getMessage());
+            throw new RuntimeException("데이터 저장 실패", e);
+        }
+    }
+    
+    @Override
+    public User findUserByEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        List<User> users = queryUsers("SELECT " + USER_COLUMNS + " FROM users WHERE email_key = ?",
+            UserStore.normalizeEmail(email));
+        return users.isEmpty() ? null : users.get(0);
+    }
+    
+    @Override
+    public User findUserById(Long userId) {
+        List<User> users = queryUsers("SELECT " + USER_COLUMNS + " FROM users WHERE id = ?", userId);
+        return users.isEmpty() ? null : users.get(0);
+    }
+    
+    @Override
+    public List<User> readUsers() {
+        return queryUsers("SELECT " + USER_COLUMNS + " FROM users ORDER BY id", null);
+    }
+    
+    /**
+     * 사용자 추가 (email_key 유니크 인덱스로 중복 확인)
+     */
+    @Override
+    public boolean insertUser(User user) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT INTO users (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            bindUser(insert, user);
+            insert.executeUpdate();
+            return true;
+        } catch (SQLException e) {
+            if (DUPLICATE_KEY.equals(e.getSQLState())) {
+                return false;
+            }
+            System.err.println("H2 사용자 저장 실패: " + e.getMessage());
+            throw new RuntimeException("데이터 저장 실패", e);
+        }
+    }
+    
+    private List<Subscription> querySubscriptions(String sql, Long param) {
+        List<Subscription> result = new ArrayList<>();
+        forEachSubscriptionRow(sql, param, result::add);
+        return result;
+    }
+    
+    private void forEachSubscriptionRow(String sql, Long param, Consumer<Subscription> action) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement query = connection.prepareStatement(sql)) {
+            if (param != null) {
+                query.setLong(1, param);
+            }
+            query.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    action.accept(jsonCodec.subscriptionReader().readValue(rs.getString(1)));
+                }
+            }
+        } catch (SQLException | IOException e) {
+            System.err.println("H2 구독 조회 실패: " + e.getMessage());
+            throw new RuntimeException("데이터 조회 실패", e);
+        }
+    }
+    
+    private List<User> queryUsers(String sql, Object param) {
+        List<User> result = new ArrayList<>();
+        try (Connection connection = pool.getConnection();
+             PreparedStatement query = connection.prepareStatement(sql)) {
+            if (param != null) {
+                query.setObject(1, param);
+            }
+            try (ResultSet rs = query.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User();
+                    user.setId(rs.getLong("id"));
+                    user.setName(rs.getString("name"));
+                    user.setEmail(rs.getString("email"));
+                    user.setPassword(rs.getString("password"));
+                    user.setPhoneNumber(rs.getString("phone_number"));
+                    user.setNotificationEnabled((Boolean) rs.getObject("notification_enabled"));
+                    user.setEmailNotification((Boolean) rs.getObject("email_notification"));
+                    user.setPushNotification((Boolean) rs.getObject("push_notification"));
+                    Timestamp createdAt = rs.getTimestamp("created_at");
+                    user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+                    Timestamp updatedAt = rs.getTimestamp("updated_at");
+                    user.setUpdatedAt(updatedAt != null ? updatedAt.toLocalDateTime() : null);
+                    result.add(user);
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("H2 사용자 조회 실패: " + e.getMessage());
+            throw new RuntimeException("데이터 조회 실패", e);
+        }
+        return result;
+    }
+    
+    private void bindSubscription(PreparedStatement statement, Subscription subscription) throws SQLException, IOException {
+        statement.setLong(1, subscription.getId());
+        statement.setLong(2, subscription.getUserId());
+        if (subscription.getVersion() != null) {
+            statement.setLong(3, subscription.getVersion());
+        } else {
+            statement.setNull(3, Types.BIGINT);
+        }
+        statement.setDate(4, subscription.getNextPaymentDate() != null ? Date.valueOf(subscription.getNextPaymentDate()) : null);
+        statement.setString(5, jsonCodec.subscriptionWriter().writeValueAsString(subscription));
+    }
+    
+    private static void bindUser(PreparedStatement statement, User user) throws SQLException {
+        statement.setLong(1, user.getId());
+        statement.setString(2, user.getName());
+        statement.setString(3, user.getEmail());
+        statement.setString(4, user.getPassword());
+        statement.setString(5, user.getPhoneNumber());
+        statement.setObject(6, user.getNotificationEnabled(), Types.BOOLEAN);
+        statement.setObject(7, user.getEmailNotification(), Types.BOOLEAN);
+        statement.setObject(8, user.getPushNotification(), Types.BOOLEAN);
+        statement.setTimestamp(9, user.getCreatedAt() != null ? Timestamp.valueOf(user.getCreatedAt()) : null);
+        statement.setTimestamp(10, user.getUpdatedAt() != null ? Timestamp.valueOf(user.getUpdatedAt()) : null);
+    }
+}
@@ -0,0 +1,370 @@
+package com.smartsubscription.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.JsonNodeFeature;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionStatus;
+import com.smartsubscription.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 데이터 파일용 Jackson 설정과 타입별 ObjectReader/ObjectWriter 캐시
+ * 
+ * 읽기/쓰기마다 타입 정보를 다시 찾지 않도록 모델 타입별 리더와 라이터를 한 번만 만들어 재사용한다.
+ * 목록 파일(users.json, 샤드 스냅샷)은 JSON / Smile / CBOR (+gzip) 중 설정한 형식으로 쓰고,
+ * 읽을 때는 파일 내용으로 형식을 판별한다 (DataFileFormat 참고).
+ * (ObjectReader/ObjectWriter 는 불변이라 여러 스레드에서 공유해도 안전하다.)
+ * 데이터 파일의 날짜는 모두 yyyy-MM-dd / yyyy-MM-ddTHH:mm:ss[.n] 형식이므로 이 형식은 직접 파싱하고
+ * 그 외 형식만 java.time 파서로 넘긴다.
+ * storage.jackson.blackbird=true 이면 Blackbird 모듈을 등록해 리플렉션 대신
+ * 생성된 람다로 getter/setter 를 호출한다.
+ */
+@Component
+public class JsonCodec {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final ObjectReader subscriptionReader;
+    private final ObjectWriter subscriptionWriter;
+    
+    // 형식별 목록 리더/라이터
+    private final Map<DataFileFormat, ObjectMapper> mappers = new EnumMap<>(DataFileFormat.class);
+    private final Map<DataFileFormat, ObjectReader> subscriptionListReaders = new EnumMap<>(DataFileFormat.class);
+    private final Map<DataFileFormat, ObjectWriter> subscriptionListWriters = new EnumMap<>(DataFileFormat.class);
+    private final Map<DataFileFormat, ObjectReader> userListReaders = new EnumMap<>(DataFileFormat.class);
+    private final Map<DataFileFormat, ObjectWriter> userListWriters = new EnumMap<>(DataFileFormat.class);
+    
+    /**
+     * 파일 내용으로 판별한 형식과 (압축을 푼) 입력 스트림
+     */
+    private static class DecodedInput {
+        final DataFileFormat format;
+        final InputStream stream;
+        
+        DecodedInput(DataFileFormat format, InputStream stream) {
+            this.format = format;
+            this.stream = stream;
+        }
+    }
+    
+    public JsonCodec(@Value("${storage.jackson.blackbird:false}") boolean blackbird) {
+        this.objectMapper = createObjectMapper(blackbird);
+        
+        this.subscriptionReader = objectMapper.readerFor(Subscription.class);
+        this.subscriptionWriter = objectMapper.writerFor(Subscription.class);
+        
+        mappers.put(DataFileFormat.JSON_PRETTY, objectMapper);
+        mappers.put(DataFileFormat.JSON, objectMapper);
+        mappers.put(DataFileFormat.SMILE, createObjectMapper(new SmileFactory(), blackbird));
+        // self-describe 태그를 붙여 읽을 때 CBOR 임을 확실히 판별
+        mappers.put(DataFileFormat.CBOR, createObjectMapper(
+            CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER).build(), blackbird));
+        
+        TypeReference<List<Subscription>> subscriptionListType = new TypeReference<>() {};
+        TypeReference<List<User>> userListType = new TypeReference<>() {};
+        for (Map.Entry<DataFileFormat, ObjectMapper> entry : mappers.entrySet()) {
+            DataFileFormat format = entry.getKey();
+            ObjectMapper mapper = entry.getValue();
+            ObjectWriter subscriptionListWriter = mapper.writerFor(subscriptionListType);
+            ObjectWriter userListWriter = mapper.writerFor(userListType);
+            if (format == DataFileFormat.JSON_PRETTY) {
+                subscriptionListWriter = subscriptionListWriter.withDefaultPrettyPrinter();
+                userListWriter = userListWriter.withDefaultPrettyPrinter();
+            }
+            subscriptionListReaders.put(format, mapper.readerFor(subscriptionListType));
+            subscriptionListWriters.put(format, subscriptionListWriter);
+            userListReaders.put(format, mapper.readerFor(userListType));
+            userListWriters.put(format, userListWriter);
+        }
+    }
+    
+    /**
+     * 데이터 파일용 ObjectMapper 생성 (JSON)
+     */
+    public static ObjectMapper createObjectMapper(boolean blackbird) {
+        return createObjectMapper(new JsonFactory(), blackbird);
+    }
+    
+    /**
+     * 데이터 파일용 ObjectMapper 생성 (형식별 팩토리)
+     */
+    public static ObjectMapper createObjectMapper(JsonFactory factory, boolean blackbird) {
+        ObjectMapper objectMapper = new ObjectMapper(factory);
+        objectMapper.findAndRegisterModules(); // LocalDate 등 지원
+        
+        // 날짜 직렬화 설정: yyyy-MM-dd 형식으로 통일 (타임존 문제 방지)
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        
+        // 트리 변환(병합 패치) 시 금액 자릿수를 그대로 유지 (기본값은 1000 -> 1E+3 으로 정규화)
+        objectMapper.configure(JsonNodeFeature.STRIP_TRAILING_BIGDECIMAL_ZEROES, false);
+        
+        // 기본 ISO 형식 날짜는 DateTimeFormatter 를 거치지 않고 직접 파싱 (JavaTimeModule 보다 나중에 등록해야 우선함)
+        SimpleModule isoDates = new SimpleModule("IsoDates");
+        isoDates.addDeserializer(LocalDate.class, new IsoLocalDateDeserializer());
+        isoDates.addDeserializer(LocalDateTime.class, new IsoLocalDateTimeDeserializer());
+        objectMapper.registerModule(isoDates);
+        
+        // 모델 기본값이 있는 필드는 null 도 기록 (빠지면 다시 읽을 때 기본값으로 바뀜)
+        objectMapper.addMixIn(Subscription.class, SubscriptionDefaultsMixIn.class);
+        
+        if (blackbird) {
+            objectMapper.registerModule(new BlackbirdModule());
+        }
+        return objectMapper;
+    }
+    
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+    
+    /**
+     * 구독 단건 (압축 JSON) 리더
+     */
+    public ObjectReader subscriptionReader() {
+        return subscriptionReader;
+    }
+    
+    /**
+     * 구독 단건 (압축 JSON) 라이터
+     */
+    public ObjectWriter subscriptionWriter() {
+        return subscriptionWriter;
+    }
+    
+    /**
+     * 구독 목록을 지정한 방식으로 인코딩
+     */
+    public byte[] encodeSubscriptions(List<Subscription> subscriptions, DataFileEncoding encoding) throws IOException {
+        return encode(subscriptionListWriters.get(encoding.getFormat()), subscriptions, encoding.isGzip());
+    }
+    
+    /**
+     * 사용자 목록을 지정한 방식으로 인코딩
+     */
+    public byte[] encodeUsers(List<User> users, DataFileEncoding encoding) throws IOException {
+        return encode(userListWriters.get(encoding.getFormat()), users, encoding.isGzip());
+    }
+    
+    /**
+     * 구독 목록 파일 읽기 (형식 자동 판별)
+     */
+    public List<Subscription> decodeSubscriptions(File file) throws IOException {
+        DecodedInput input = open(file);
+        try (InputStream stream = input.stream) {
+            return subscriptionListReaders.get(input.format).readValue(stream);
+        }
+    }
+    
+    /**
+     * 사용자 목록 파일 읽기 (형식 자동 판별)
+     */
+    public List<User> decodeUsers(File file) throws IOException {
+        DecodedInput input = open(file);
+        try (InputStream stream = input.stream) {
+            return userListReaders.get(input.format).readValue(stream);
+        }
+    }
+    
+    /**
+     * 파일 형식에 맞는 토큰 파서 생성 (스트리밍 필터용, 파서를 닫으면 파일도 닫힘)
+     */
+    public JsonParser createParser(File file) throws IOException {
+        DecodedInput input = open(file);
+        try {
+            return mappers.get(input.format).getFactory().createParser(input.stream);
+        } catch (IOException | RuntimeException e) {
+            input.stream.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * 파일 내용으로 판별한 형식 (gzip 여부 포함)
+     */
+    public static DataFileEncoding detectEncoding(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] header = in.readNBytes(3);
+            if (DataFileFormat.isGzip(header, header.length)) {
+                try (InputStream gzip = new GZIPInputStream(new FileInputStream(file))) {
+                    byte[] inner = gzip.readNBytes(3);
+                    return new DataFileEncoding(DataFileFormat.detect(inner, inner.length), true);
+                }
+            }
+            return new DataFileEncoding(DataFileFormat.detect(header, header.length), false);
+        }
+    }
+    
+    private static byte[] encode(ObjectWriter writer, Object value, boolean gzip) throws IOException {
+        if (!gzip) {
+            return writer.writeValueAsBytes(value);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes, BUFFER_SIZE)) {
+            writer.writeValue(out, value);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static DecodedInput open(File file) throws IOException {
+        InputStream stream = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+        try {
+            byte[] header = new byte[3];
+            int length = peek(stream, header);
+            if (DataFileFormat.isGzip(header, length)) {
+                stream = new BufferedInputStream(new GZIPInputStream(stream, BUFFER_SIZE), BUFFER_SIZE);
+                length = peek(stream, header);
+            }
+            return new DecodedInput(DataFileFormat.detect(header, length), stream);
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+    
+    private static int peek(InputStream stream, byte[] header) throws IOException {
+        stream.mark(header.length);
+        int length = stream.readNBytes(header, 0, header.length);
+        stream.reset();
+        return length;
+    }
+    
+    /**
+     * Subscription 의 NON_NULL 중 기본값이 있는 필드만 null 도 기록하도록 덮어씀
+     */
+    abstract static class SubscriptionDefaultsMixIn {
+        
+        @JsonInclude(JsonInclude.Include.ALWAYS)
+        private String currency;
+        
+        @JsonInclude(JsonInclude.Include.ALWAYS)
+        private SubscriptionStatus status;
+        
+        @JsonInclude(JsonInclude.Include.ALWAYS)
+        private Boolean autoDetected;
+    }
+    
+    /**
+     * yyyy-MM-dd 빠른 경로 (빈 문자열은 null)
+     */
+    static class IsoLocalDateDeserializer extends StdScalarDeserializer<LocalDate> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        IsoLocalDateDeserializer() {
+            super(LocalDate.class);
+        }
+        
+        @Override
+        public LocalDate deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (LocalDate) context.handleUnexpectedToken(LocalDate.class, parser);
+            }
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                return parseDate(text);
+            } catch (DateTimeException | NumberFormatException e) {
+                return (LocalDate) context.handleWeirdStringValue(LocalDate.class, text, e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * yyyy-MM-ddTHH:mm:ss[.n] 빠른 경로 (빈 문자열은 null)
+     */
+    static class IsoLocalDateTimeDeserializer extends StdScalarDeserializer<LocalDateTime> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        IsoLocalDateTimeDeserializer() {
+            super(LocalDateTime.class);
+        }
+        
+        @Override
+        public LocalDateTime deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+                return (LocalDateTime) context.handleUnexpectedToken(LocalDateTime.class, parser);
+            }
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return null;
+            }
+            try {
+                if (text.length() >= 19 && text.charAt(10) == 'T' && text.charAt(13) == ':' && text.charAt(16) == ':'
+                        && (text.length() == 19 || text.charAt(19) == '.')) {
+                    int nanos = 0;
+                    if (text.length() > 20) {
+                        String fraction = text.substring(20);
+                        if (fraction.length() > 9) {
+                            throw new DateTimeException("소수 초 자릿수 초과: " + text);
+                        }
+                        nanos = Integer.parseInt(fraction) * POWERS_OF_TEN[9 - fraction.length()];
+                    }
+                    LocalTime time = LocalTime.of(digits(text, 11, 13), digits(text, 14, 16), digits(text, 17, 19), nanos);
+                    return LocalDateTime.of(parseDate(text.substring(0, 10)), time);
+                }
+                return LocalDateTime.parse(text);
+            } catch (DateTimeException | NumberFormatException e) {
+                return (LocalDateTime) context.handleWeirdStringValue(LocalDateTime.class, text, e.getMessage());
+            }
+        }
+    }
+    
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000};
+    
+    private static LocalDate parseDate(String text) {
+        if (text.length() == 10 && text.charAt(4) == '-' && text.charAt(7) == '-') {
+            return LocalDate.of(digits(text, 0, 4), digits(text, 5, 7), digits(text, 8, 10));
+        }
+        return LocalDate.parse(text);
+    }
+    
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("숫자가 아닙니다: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+}
@@ -1,38 +1,193 @@
 package com.smartsubscription.service;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
-import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.User;
+import com.smartsubscription.repository.SubscriptionStore;
+import com.smartsubscription.repository.UserStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.scheduling.annotation.Scheduled;
+import jakarta.annotation.PostConstruct;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * JSON 파일 기반 데이터 저장 및 검색 서비스
+ * 
+ * 구독 데이터는 userId 해시로 나눈 샤드 파일(data/subscriptions/shard-XX.json)에 저장되며,
+ * 샤드마다 스냅샷과 추가 전용 변경 로그(shard-XX.log)를 가진다.
+ * 단건 변경은 해당 사용자의 샤드 로그에 한 줄(upsert/patch/delete)만 추가하고, 로그가 일정 크기를 넘으면
+ * 백그라운드 컴팩션이 로그를 스냅샷에 합친다.
+ * 
+ * 사용자 목록과 샤드 스냅샷은 storage.encoding 설정 형식(JSON / Smile / CBOR, gzip 선택)으로 저장하며
+ * 읽을 때는 파일 내용으로 형식을 판별한다. 변경 로그는 줄 단위 추가를 위해 항상 NDJSON 이다.
+ * 요청 경로의 쓰기(변경 로그 추가, 사용자 목록 교체)는 storage.write-behind 설정 시 기록을 기다리지 않는다.
+ * 
+ * storage.type=json(기본)일 때만 빈으로 만들어져 SubscriptionStore/UserStore 구현체로 쓰인다.
+ * 다른 저장소는 기존 데이터 파일을 가져올 때 openForImport 로 따로 만들어 한 번 읽는다.
  */
 @Service
-public class JsonFileService {
+@ConditionalOnProperty(name = "storage.type", havingValue = "json", matchIfMissing = true)
+public class JsonFileService implements SubscriptionStore, UserStore {
     
     private static final String DATA_DIR = "data";
     private static final String USERS_FILE = DATA_DIR + "/users.json";
-    private static final String SUBSCRIPTIONS_FILE = DATA_DIR + "/subscriptions.json";
+    private static final String SUBSCRIPTIONS_DIR = DATA_DIR + "/subscriptions";
+    private static final String SHARD_META_FILE = SUBSCRIPTIONS_DIR + "/shards.meta";
     
-    private final ObjectMapper objectMapper;
+    // 샤드 도입 이전의 단일 파일 (최초 기동 시 한 번 샤드로 이관)
+    private static final String LEGACY_SUBSCRIPTIONS_FILE = DATA_DIR + "/subscriptions.json";
+    private static final String LEGACY_SUBSCRIPTIONS_LOG = DATA_DIR + "/subscriptions.log";
     
-    public JsonFileService() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.findAndRegisterModules(); // LocalDate 등 지원
+    private static final String OP_UPSERT = "upsert";
+    private static final String OP_DELETE = "delete";
+    private static final String OP_PATCH = "patch";
+    
+    private final JsonCodec jsonCodec;
+    
+    private final ObjectReader logEntryReader;
+    private final ObjectWriter logEntryWriter;
+    
+    // 모델 기본값이 있는 필드 (null 로 바꾼 값은 병합 패치로 표현할 수 없어 upsert 로 기록)
+    private final Set<String> defaultedFields;
+    
+    // 모든 파일 쓰기는 그룹 커밋 기록기를 거쳐 순서대로 디스크에 반영된다
+    private final GroupCommitWriter groupCommitWriter;
+    
+    private Shard[] shards;
+    
+    @Value("${storage.shard-count:16}")
+    private int configuredShardCount;
+    
+    @Value("${storage.compaction.threshold-bytes:1048576}")
+    private long compactionThresholdBytes;
+    
+    @Value("${storage.binary-snapshot.enabled:true}")
+    private boolean binarySnapshotEnabled;
+    
+    @Value("${storage.encoding.users:json-pretty}")
+    private String usersEncodingSpec;
+    
+    @Value("${storage.encoding.subscriptions:json}")
+    private String subscriptionsEncodingSpec;
+    
+    private DataFileEncoding usersEncoding;
+    private DataFileEncoding subscriptionsEncoding;
+    
+    // 사용자 목록과 이메일/ID 색인 (변경 시 통째로 교체, 쓰기는 usersLock 으로 직렬화)
+    private volatile UserIndex userIndex;
+    private final Object usersLock = new Object();
+    
+    /**
+     * 데이터 파일 디코더 (파일 형식은 내용으로 판별)
+     */
+    private interface Decoder<T> {
+        List<T> decode(File file) throws IOException;
+    }
+    
+    /**
+     * 데이터 파일 인코더
+     */
+    private interface Encoder {
+        byte[] encode() throws IOException;
+    }
+    
+    /**
+     * 구독 샤드 하나 (스냅샷 + 변경 로그)
+     */
+    private static class Shard {
+        final String snapshotFile;
+        final String logFile;
+        final String compactingLogFile;
+        final String name;
+        
+        // 매핑해 둔 바이너리 스냅샷 (스냅샷을 다시 쓰면 비움)
+        volatile BinarySnapshot binarySnapshot;
+        
+        // 현재 바이너리 스냅샷 세대 (다시 만들 때마다 새 세대 파일에 씀)
+        volatile long binarySnapshotGeneration;
+        
+        // 샤드 상태 읽기(스냅샷 + 로그 재생)와 컴팩션을 직렬화
+        final Object compactionLock = new Object();
+        
+        Shard(int index) {
+            this.name = String.format("shard-%02d", index);
+            String base = SUBSCRIPTIONS_DIR + "/" + name;
+            this.snapshotFile = base + ".json";
+            this.logFile = base + ".log";
+            this.compactingLogFile = base + ".log.compacting";
+        }
         
-        // 날짜 직렬화 설정: yyyy-MM-dd 형식으로 통일 (타임존 문제 방지)
-        com.fasterxml.jackson.databind.SerializationFeature writeDatesAsTimestamps = 
-            com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
-        this.objectMapper.disable(writeDatesAsTimestamps);
+        Path binarySnapshotFile() {
+            return BinarySnapshot.file(Paths.get(SUBSCRIPTIONS_DIR), name, binarySnapshotGeneration);
+        }
+    }
+    
+    /**
+     * 사용자 목록 스냅샷과 정규화한 이메일 / ID 색인
+     */
+    private static class UserIndex {
+        final List<User> users;
+        final Map<String, User> byEmail;
+        final Map<Long, User> byId;
+        
+        UserIndex(List<User> users) {
+            this.users = users;
+            this.byEmail = new HashMap<>(users.size() * 2);
+            this.byId = new HashMap<>(users.size() * 2);
+            for (User user : users) {
+                if (user.getEmail() != null
+                        && byEmail.putIfAbsent(UserStore.normalizeEmail(user.getEmail()), user) != null) {
+                    System.err.println("대소문자만 다른 중복 이메일 (먼저 저장된 사용자로 로그인): " + user.getEmail());
+                }
+                if (user.getId() != null) {
+                    byId.putIfAbsent(user.getId(), user);
+                }
+            }
+        }
+    }
+    
+    /**
+     * 변경 로그 한 줄 ({"op":"upsert","subscription":{..}}, {"op":"patch","id":N,"patch":{..}} 또는 {"op":"delete","id":N})
+     * patch 는 직전 상태에 적용할 JSON Merge Patch (바뀐 필드만 담음)
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class LogEntry {
+        public String op;
+        public Subscription subscription;
+        public Long id;
+        public JsonNode patch;
+    }
+    
+    public JsonFileService(GroupCommitWriter groupCommitWriter, JsonCodec jsonCodec) {
+        this.groupCommitWriter = groupCommitWriter;
+        this.jsonCodec = jsonCodec;
+        this.logEntryReader = jsonCodec.getObjectMapper().readerFor(LogEntry.class);
+        this.logEntryWriter = jsonCodec.getObjectMapper().writerFor(LogEntry.class);
+        Set<String> defaulted = new HashSet<>();
+        jsonCodec.getObjectMapper().valueToTree(new Subscription()).fieldNames().forEachRemaining(defaulted::add);
+        this.defaultedFields = Set.copyOf(defaulted);
         
         // data 디렉토리 생성
         try {
@@ -43,131 +198,594 @@ public class JsonFileService {
     }
     
     /**
-     * 사용자 목록 읽기
+     * 다른 저장소로 가져오기 위해 기존 데이터 파일을 읽는 인스턴스
+     * 스프링 빈이 아니므로 컴팩션 작업은 돌지 않으며, 설정은 빈과 같은 storage.* 값을 읽는다.
      */
-    @SuppressWarnings("unchecked")
-    public List<Map<String, Object>> readUsers() {
-        return readJsonFile(USERS_FILE, List.class);
+    public static JsonFileService openForImport(GroupCommitWriter groupCommitWriter, JsonCodec jsonCodec,
+                                                PropertyResolver properties) {
+        JsonFileService service = new JsonFileService(groupCommitWriter, jsonCodec);
+        service.configuredShardCount = properties.getProperty("storage.shard-count", Integer.class, 16);
+        service.usersEncodingSpec = properties.getProperty("storage.encoding.users", "json-pretty");
+        service.subscriptionsEncodingSpec = properties.getProperty("storage.encoding.subscriptions", "json");
+        service.binarySnapshotEnabled = false;
+        service.initShards();
+        return service;
     }
     
     /**
-     * 사용자 목록 저장
+     * 사용자 목록 읽기 (상주 색인의 사본)
      */
-    public void saveUsers(List<Map<String, Object>> users) {
-        writeJsonFile(USERS_FILE, users);
+    @Override
+    public List<User> readUsers() {
+        return new ArrayList<>(userIndex().users);
     }
     
     /**
-     * 구독 목록 읽기
+     * 사용자 목록 저장 (저장한 목록으로 상주 색인도 교체)
      */
-    @SuppressWarnings("unchecked")
-    public List<Map<String, Object>> readSubscriptions() {
-        return readJsonFile(SUBSCRIPTIONS_FILE, List.class);
+    public void saveUsers(List<User> users) {
+        synchronized (usersLock) {
+            List<User> snapshot = new ArrayList<>(users);
+            byte[] content;
+            try {
+                content = jsonCodec.encodeUsers(snapshot, usersEncoding);
+            } catch (IOException e) {
+                throw new RuntimeException("데이터 저장 실패", e);
+            }
+            groupCommitWriter.enqueueReplace(Paths.get(USERS_FILE), content);
+            userIndex = new UserIndex(snapshot);
+        }
     }
     
     /**
-     * 구독 목록 저장
+     * 이메일로 사용자 조회 (대소문자 구분 없음)
      */
-    public void saveSubscriptions(List<Map<String, Object>> subscriptions) {
-        writeJsonFile(SUBSCRIPTIONS_FILE, subscriptions);
+    @Override
+    public User findUserByEmail(String email) {
+        return email == null ? null : userIndex().byEmail.get(UserStore.normalizeEmail(email));
     }
     
     /**
-     * 특정 사용자의 구독 목록 읽기
+     * ID 로 사용자 조회
      */
-    @SuppressWarnings("unchecked")
-    public List<Map<String, Object>> readUserSubscriptions(Long userId) {
-        List<Map<String, Object>> allSubscriptions = readSubscriptions();
-        if (allSubscriptions == null) {
-            return new ArrayList<>();
+    @Override
+    public User findUserById(Long userId) {
+        return userId == null ? null : userIndex().byId.get(userId);
+    }
+    
+    /**
+     * 사용자 추가 (색인으로 중복 확인 후 저장)
+     */
+    @Override
+    public boolean insertUser(User user) {
+        synchronized (usersLock) {
+            UserIndex index = userIndex();
+            if (index.byEmail.containsKey(UserStore.normalizeEmail(user.getEmail()))) {
+                return false;
+            }
+            List<User> users = new ArrayList<>(index.users);
+            users.add(user);
+            saveUsers(users);
+            return true;
+        }
+    }
+    
+    /**
+     * 상주 사용자 색인 (처음 사용할 때 사용자 파일을 한 번 읽음)
+     */
+    private UserIndex userIndex() {
+        UserIndex index = userIndex;
+        if (index == null) {
+            synchronized (usersLock) {
+                index = userIndex;
+                if (index == null) {
+                    index = new UserIndex(readDataFile(USERS_FILE, jsonCodec::decodeUsers));
+                    userIndex = index;
+                }
+            }
         }
+        return index;
+    }
+    
+    /**
+     * 샤드 초기화 및 단일 파일에서 샤드 구조로의 1회 이관
+     */
+    @PostConstruct
+    public void initShards() {
+        usersEncoding = DataFileEncoding.parse(usersEncodingSpec);
+        subscriptionsEncoding = DataFileEncoding.parse(subscriptionsEncodingSpec);
         
-        List<Map<String, Object>> userSubscriptions = new ArrayList<>();
-        for (Map<String, Object> subscription : allSubscriptions) {
-            Object userIdObj = subscription.get("userId");
-            if (userIdObj != null) {
-                // Long 또는 Integer로 변환하여 비교
-                long subUserId = userIdObj instanceof Number 
-                    ? ((Number) userIdObj).longValue() 
-                    : Long.parseLong(userIdObj.toString());
-                
-                if (subUserId == userId) {
-                    userSubscriptions.add(subscription);
+        try {
+            Path dir = Paths.get(SUBSCRIPTIONS_DIR);
+            Path meta = Paths.get(SHARD_META_FILE);
+            
+            int shardCount = configuredShardCount;
+            if (Files.exists(meta)) {
+                // 이미 만들어진 샤드 구조는 기존 샤드 수를 그대로 따른다 (설정 변경 시 데이터 위치가 달라지므로)
+                shardCount = Integer.parseInt(Files.readString(meta).trim());
+                if (shardCount != configuredShardCount) {
+                    System.err.println("storage.shard-count(" + configuredShardCount + ") 설정이 기존 샤드 수("
+                        + shardCount + ")와 달라 기존 값을 사용합니다.");
+                }
+            }
+            
+            shards = new Shard[shardCount];
+            for (int i = 0; i < shardCount; i++) {
+                shards[i] = new Shard(i);
+                List<Long> generations = BinarySnapshot.generations(dir, shards[i].name);
+                if (!generations.isEmpty()) {
+                    shards[i].binarySnapshotGeneration = generations.get(generations.size() - 1);
+                    deleteOldBinarySnapshots(shards[i]);
                 }
             }
+            
+            if (!Files.exists(meta)) {
+                Files.createDirectories(dir);
+                migrateLegacySubscriptions();
+                Files.writeString(meta, String.valueOf(shardCount));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("구독 샤드 초기화 실패", e);
         }
-        return userSubscriptions;
     }
     
     /**
-     * 특정 사용자의 구독 목록 저장
+     * 기존 data/subscriptions.json (+ subscriptions.log) 을 사용자별 샤드로 나눠 저장
+     * 원본 파일은 그대로 두며, shards.meta 가 생긴 이후에는 다시 읽지 않는다.
+     */
+    private void migrateLegacySubscriptions() throws IOException {
+        Path legacyFile = Paths.get(LEGACY_SUBSCRIPTIONS_FILE);
+        Path legacyLog = Paths.get(LEGACY_SUBSCRIPTIONS_LOG);
+        if (!Files.exists(legacyFile) && !Files.exists(legacyLog)) {
+            return;
+        }
+        
+        List<Subscription> snapshot = readDataFile(LEGACY_SUBSCRIPTIONS_FILE, jsonCodec::decodeSubscriptions);
+        LinkedHashMap<Long, Subscription> state = toIdMap(snapshot);
+        replayLog(LEGACY_SUBSCRIPTIONS_LOG, state);
+        
+        saveSubscriptions(new ArrayList<>(state.values()));
+        System.out.println("구독 데이터 샤드 이관 완료 - 구독 " + state.size() + "건, 샤드 " + shards.length + "개");
+    }
+    
+    /**
+     * 사용자가 속한 샤드
+     */
+    private Shard shardOf(Long userId) {
+        // 연속된 ID 가 한 샤드에 몰리지 않도록 섞은 뒤 나눈다
+        long mixed = userId * 0x9E3779B97F4A7C15L;
+        return shards[Math.floorMod(Long.hashCode(mixed), shards.length)];
+    }
+    
+    /**
+     * 전체 구독 목록 읽기 (모든 샤드)
+     */
+    @Override
+    public List<Subscription> readSubscriptions() {
+        List<Subscription> allSubscriptions = new ArrayList<>();
+        for (Shard shard : shards) {
+            allSubscriptions.addAll(readShard(shard).values());
+        }
+        return allSubscriptions;
+    }
+    
+    /**
+     * 구독 목록 전체 저장
+     * 모든 샤드의 스냅샷을 다시 쓰고 변경 로그를 비운다.
      */
-    @SuppressWarnings("unchecked")
-    public void saveUserSubscriptions(Long userId, List<Map<String, Object>> userSubscriptions) {
-        List<Map<String, Object>> allSubscriptions = readSubscriptions();
-        if (allSubscriptions == null) {
-            allSubscriptions = new ArrayList<>();
+    public void saveSubscriptions(List<Subscription> subscriptions) {
+        Map<Shard, List<Subscription>> byShard = new HashMap<>();
+        for (Shard shard : shards) {
+            byShard.put(shard, new ArrayList<>());
+        }
+        for (Subscription subscription : subscriptions) {
+            if (subscription.getUserId() == null) {
+                System.err.println("userId 가 없는 구독은 저장하지 않습니다: id=" + subscription.getId());
+                continue;
+            }
+            byShard.get(shardOf(subscription.getUserId())).add(subscription);
         }
         
-        // 기존 사용자 구독 제거
-        allSubscriptions.removeIf(sub -> {
-            Object userIdObj = sub.get("userId");
-            if (userIdObj != null) {
-                long subUserId = userIdObj instanceof Number 
-                    ? ((Number) userIdObj).longValue() 
-                    : Long.parseLong(userIdObj.toString());
-                return subUserId == userId;
+        for (Shard shard : shards) {
+            synchronized (shard.compactionLock) {
+                writeShardSnapshot(shard, byShard.get(shard));
+                if (Files.exists(Paths.get(shard.logFile))) {
+                    groupCommitWriter.replace(Paths.get(shard.logFile), new byte[0]);
+                }
+                try {
+                    Files.deleteIfExists(Paths.get(shard.compactingLogFile));
+                } catch (IOException e) {
+                    throw new RuntimeException("변경 로그 정리 실패", e);
+                }
             }
-            return false;
-        });
+        }
+    }
+    
+    /**
+     * 특정 사용자의 구독 변경 사항을 해당 샤드의 변경 로그에 추가
+     * 변경된 레코드 수에 비례하는 크기만 기록한다.
+     */
+    @Override
+    public void saveSubscriptionChanges(Long userId, List<Subscription> upserts, Collection<Long> deletedIds) {
+        saveSubscriptionChanges(userId, upserts, Map.of(), deletedIds);
+    }
+    
+    /**
+     * 기존 레코드의 수정은 전체 레코드 대신 바뀐 필드만 patch 항목으로 기록
+     */
+    @Override
+    public void saveSubscriptionChanges(Long userId, List<Subscription> upserts, Map<Long, Subscription> previous,
+                                        Collection<Long> deletedIds) {
+        if (upserts.isEmpty() && deletedIds.isEmpty()) {
+            return;
+        }
         
-        // 새 구독 목록 추가
-        allSubscriptions.addAll(userSubscriptions);
+        ObjectMapper mapper = jsonCodec.getObjectMapper();
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (Subscription subscription : upserts) {
+                LogEntry entry = new LogEntry();
+                Subscription before = previous.get(subscription.getId());
+                JsonNode patch = before != null
+                    ? JsonMergePatch.diff(mapper.valueToTree(before), mapper.valueToTree(subscription)) : null;
+                if (patch != null && !clearsDefaultedField(patch)) {
+                    entry.op = OP_PATCH;
+                    entry.id = subscription.getId();
+                    entry.patch = patch;
+                } else {
+                    entry.op = OP_UPSERT;
+                    entry.subscription = subscription;
+                }
+                lines.append(logEntryWriter.writeValueAsString(entry)).append('\n');
+            }
+            for (Long id : deletedIds) {
+                LogEntry entry = new LogEntry();
+                entry.op = OP_DELETE;
+                entry.id = id;
+                lines.append(logEntryWriter.writeValueAsString(entry)).append('\n');
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("변경 로그 직렬화 실패", e);
+        }
         
-        saveSubscriptions(allSubscriptions);
+        // 같은 시점에 들어온 다른 요청의 추가와 함께 한 번의 쓰기로 기록됨
+        Shard shard = shardOf(userId);
+        groupCommitWriter.enqueueAppend(Paths.get(shard.logFile), lines.toString().getBytes(StandardCharsets.UTF_8));
     }
     
     /**
-     * JSON 파일 읽기
+     * 변경 로그 컴팩션
+     * 로그가 임계치를 넘은 샤드마다 로그 파일을 떼어낸 뒤 스냅샷에 합친다.
+     * 떼어낸 이후의 변경은 새 로그에 계속 추가되므로 요청 처리를 막지 않는다.
      */
-    @SuppressWarnings("unchecked")
-    private <T> T readJsonFile(String filePath, Class<T> valueType) {
-        File file = new File(filePath);
+    @Scheduled(fixedDelayString = "${storage.compaction.interval-ms:30000}")
+    public void compactSubscriptionLog() {
+        for (Shard shard : shards) {
+            compactShard(shard);
+        }
+    }
+    
+    private void compactShard(Shard shard) {
+        synchronized (shard.compactionLock) {
+            refreshBinarySnapshot(shard);
+            
+            Path log = Paths.get(shard.logFile);
+            Path compacting = Paths.get(shard.compactingLogFile);
+            try {
+                // 이전 컴팩션이 중단된 경우 남은 로그부터 처리
+                if (!Files.exists(compacting)) {
+                    if (!Files.exists(log) || Files.size(log) < compactionThresholdBytes) {
+                        return;
+                    }
+                    // 기록기 큐에서 앞선 추가가 모두 반영된 뒤 로그를 떼어냄
+                    groupCommitWriter.move(log, compacting);
+                }
+                
+                List<Subscription> snapshot = readDataFile(shard.snapshotFile, jsonCodec::decodeSubscriptions);
+                LinkedHashMap<Long, Subscription> state = toIdMap(snapshot);
+                replayLog(shard.compactingLogFile, state);
+                
+                writeShardSnapshot(shard, new ArrayList<>(state.values()));
+                Files.delete(compacting);
+                System.out.println("변경 로그 컴팩션 완료 - " + shard.snapshotFile + ", 구독 " + state.size() + "건");
+            } catch (IOException | RuntimeException e) {
+                System.err.println("변경 로그 컴팩션 실패: " + shard.snapshotFile + " - " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * 샤드 상태 읽기 (스냅샷 + 변경 로그 재생)
+     */
+    private LinkedHashMap<Long, Subscription> readShard(Shard shard) {
+        synchronized (shard.compactionLock) {
+            List<Subscription> snapshot = readDataFile(shard.snapshotFile, jsonCodec::decodeSubscriptions);
+            LinkedHashMap<Long, Subscription> state = toIdMap(snapshot);
+            replayLog(shard.compactingLogFile, state);
+            replayLog(shard.logFile, state);
+            return state;
+        }
+    }
+    
+    /**
+     * 특정 사용자의 구독 목록 읽기 (해당 사용자의 샤드만 읽음)
+     * 바이너리 스냅샷이 최신이면 해당 사용자의 레코드만 역직렬화하고, 아니면 스냅샷을
+     * 토큰 단위로 훑어 해당 사용자의 레코드만 만든 뒤 변경 로그를 재생한다.
+     */
+    @Override
+    public List<Subscription> readUserSubscriptions(Long userId) {
+        Shard shard = shardOf(userId);
+        LinkedHashMap<Long, Subscription> state;
+        synchronized (shard.compactionLock) {
+            List<Subscription> snapshot = readUserFromBinarySnapshot(shard, userId);
+            if (snapshot == null) {
+                snapshot = readUserFromSnapshot(shard, userId);
+            }
+            state = toIdMap(snapshot);
+            // 로그에는 같은 샤드의 다른 사용자 변경도 섞여 있으므로 아래에서 userId 로 걸러냄
+            replayLog(shard.compactingLogFile, state);
+            replayLog(shard.logFile, state);
+        }
         
+        List<Subscription> userSubscriptions = new ArrayList<>();
+        for (Subscription subscription : state.values()) {
+            if (userId.equals(subscription.getUserId())) {
+                userSubscriptions.add(subscription);
+            }
+        }
+        return userSubscriptions;
+    }
+    
+    /**
+     * 스냅샷(JSON / Smile / CBOR)에서 특정 사용자의 레코드만 스트리밍으로 읽기
+     */
+    private List<Subscription> readUserFromSnapshot(Shard shard, Long userId) {
+        File file = new File(shard.snapshotFile);
         if (!file.exists()) {
-            if (valueType == List.class) {
-                return (T) new ArrayList<>();
+            return new ArrayList<>();
+        }
+        try {
+            return SubscriptionStreamReader.readUserRecords(jsonCodec.subscriptionReader(), jsonCodec.createParser(file), userId);
+        } catch (IOException e) {
+            System.err.println("스냅샷 파일 읽기 실패: " + shard.snapshotFile + " - " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 샤드 스냅샷 저장: 스냅샷을 쓴 뒤 같은 내용의 바이너리 사본을 만든다
+     * (스트리밍 필터를 위해 Subscription 은 id, userId 를 각 레코드의 맨 앞에 기록한다.)
+     */
+    private void writeShardSnapshot(Shard shard, List<Subscription> subscriptions) {
+        writeDataFile(shard.snapshotFile, () -> jsonCodec.encodeSubscriptions(subscriptions, subscriptionsEncoding));
+        rebuildBinarySnapshot(shard, subscriptions);
+    }
+    
+    /**
+     * 바이너리 사본이 없거나 JSON 스냅샷보다 오래되었으면 다시 만든다 (요청 경로 밖에서 호출)
+     */
+    private void refreshBinarySnapshot(Shard shard) {
+        if (!binarySnapshotEnabled || !Files.exists(Paths.get(shard.snapshotFile))) {
+            return;
+        }
+        try {
+            BinarySnapshot snapshot = shard.binarySnapshot;
+            if (snapshot == null && Files.exists(shard.binarySnapshotFile())) {
+                snapshot = BinarySnapshot.open(shard.binarySnapshotFile());
             }
-            return null;
+            Path json = Paths.get(shard.snapshotFile);
+            if (snapshot != null && snapshot.matches(Files.size(json), Files.getLastModifiedTime(json).toMillis())) {
+                return;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("바이너리 스냅샷 확인 실패: " + shard.binarySnapshotFile() + " - " + e.getMessage());
         }
-        
+        rebuildBinarySnapshot(shard, readDataFile(shard.snapshotFile, jsonCodec::decodeSubscriptions));
+    }
+    
+    /**
+     * 현재 JSON 스냅샷 내용으로 바이너리 스냅샷 다시 쓰기
+     * 이전 세대 파일은 아직 매핑이 남아 있을 수 있으므로 교체하지 않고 다음 세대 파일에 쓴 뒤 세대를 바꾼다.
+     */
+    private void rebuildBinarySnapshot(Shard shard, List<Subscription> subscriptions) {
+        if (!binarySnapshotEnabled) {
+            return;
+        }
+        shard.binarySnapshot = null;
+        long generation = shard.binarySnapshotGeneration + 1;
+        try {
+            Path json = Paths.get(shard.snapshotFile);
+            if (!Files.exists(json)) {
+                return;
+            }
+            byte[] content = BinarySnapshot.encode(subscriptions, jsonCodec.subscriptionWriter(),
+                Files.size(json), Files.getLastModifiedTime(json).toMillis());
+            groupCommitWriter.replace(BinarySnapshot.file(Paths.get(SUBSCRIPTIONS_DIR), shard.name, generation), content);
+            shard.binarySnapshotGeneration = generation;
+        } catch (IOException | RuntimeException e) {
+            // 바이너리 사본은 보조 수단이므로 실패해도 JSON 으로 계속 동작
+            System.err.println("바이너리 스냅샷 저장 실패: " + shard.name + " (세대 " + generation + ") - " + e.getMessage());
+        }
+        deleteOldBinarySnapshots(shard);
+    }
+    
+    /**
+     * 현재 세대가 아닌 바이너리 스냅샷 파일 삭제
+     * Windows 에서는 매핑이 남아 있는 파일을 지울 수 없으므로, 실패한 파일은 다음 재생성 / 기동 때 다시 지운다.
+     */
+    private void deleteOldBinarySnapshots(Shard shard) {
+        Path dir = Paths.get(SUBSCRIPTIONS_DIR);
         try {
-            if (valueType == List.class) {
-                TypeFactory typeFactory = objectMapper.getTypeFactory();
-                CollectionType listType = typeFactory.constructCollectionType(List.class, Map.class);
-                return objectMapper.readValue(file, listType);
+            for (long generation : BinarySnapshot.generations(dir, shard.name)) {
+                if (generation == shard.binarySnapshotGeneration) {
+                    continue;
+                }
+                try {
+                    Files.deleteIfExists(BinarySnapshot.file(dir, shard.name, generation));
+                } catch (IOException e) {
+                    // 아직 매핑 중인 파일: 다음에 다시 시도
+                }
             }
-            return objectMapper.readValue(file, valueType);
         } catch (IOException e) {
-            System.err.println("JSON 파일 읽기 실패: " + filePath + " - " + e.getMessage());
-            if (valueType == List.class) {
-                return (T) new ArrayList<>();
+            System.err.println("이전 바이너리 스냅샷 정리 실패: " + shard.name + " - " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 바이너리 스냅샷에서 특정 사용자의 레코드 읽기
+     * 스냅샷이 없거나 JSON 스냅샷보다 오래되었으면 null
+     */
+    private List<Subscription> readUserFromBinarySnapshot(Shard shard, Long userId) {
+        if (!binarySnapshotEnabled) {
+            return null;
+        }
+        try {
+            Path json = Paths.get(shard.snapshotFile);
+            Path binary = shard.binarySnapshotFile();
+            if (!Files.exists(json) || !Files.exists(binary)) {
+                return null;
+            }
+            
+            BinarySnapshot snapshot = shard.binarySnapshot;
+            if (snapshot == null) {
+                snapshot = BinarySnapshot.open(binary);
+                shard.binarySnapshot = snapshot;
             }
+            if (!snapshot.matches(Files.size(json), Files.getLastModifiedTime(json).toMillis())) {
+                shard.binarySnapshot = null;
+                return null;
+            }
+            return snapshot.readUser(userId, jsonCodec.subscriptionReader());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("바이너리 스냅샷 읽기 실패: " + shard.binarySnapshotFile() + " - " + e.getMessage());
+            shard.binarySnapshot = null;
             return null;
         }
     }
     
     /**
-     * JSON 파일 저장
+     * 특정 사용자의 구독 목록 전체 저장
+     * 목록의 모든 레코드를 upsert 로, 목록에서 빠진 기존 레코드를 delete 로 변경 로그에 추가한다.
+     */
+    public void saveUserSubscriptions(Long userId, List<Subscription> userSubscriptions) {
+        Set<Long> keptIds = new HashSet<>();
+        for (Subscription subscription : userSubscriptions) {
+            keptIds.add(subscription.getId());
+        }
+        List<Long> deletedIds = new ArrayList<>();
+        for (Subscription subscription : readUserSubscriptions(userId)) {
+            if (!keptIds.contains(subscription.getId())) {
+                deletedIds.add(subscription.getId());
+            }
+        }
+        saveSubscriptionChanges(userId, userSubscriptions, deletedIds);
+    }
+    
+    /**
+     * 스냅샷 목록을 id 기준 맵으로 변환 (순서 유지)
+     */
+    private LinkedHashMap<Long, Subscription> toIdMap(List<Subscription> subscriptions) {
+        LinkedHashMap<Long, Subscription> state = new LinkedHashMap<>();
+        if (subscriptions != null) {
+            for (Subscription subscription : subscriptions) {
+                if (subscription.getId() != null) {
+                    state.put(subscription.getId(), subscription);
+                }
+            }
+        }
+        return state;
+    }
+    
+    /**
+     * 변경 로그를 읽어 상태에 순서대로 적용
+     * 마지막 줄이 기록 도중 끊긴 경우 해당 줄은 무시한다.
+     */
+    private void replayLog(String logPath, LinkedHashMap<Long, Subscription> state) {
+        Path path = Paths.get(logPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                LogEntry entry;
+                try {
+                    entry = logEntryReader.readValue(line);
+                } catch (IOException e) {
+                    System.err.println("손상된 변경 로그 항목 무시: " + logPath + " - " + e.getMessage());
+                    continue;
+                }
+                
+                if (OP_UPSERT.equals(entry.op) && entry.subscription != null) {
+                    state.put(entry.subscription.getId(), entry.subscription);
+                } else if (OP_PATCH.equals(entry.op) && entry.patch != null) {
+                    // 기준 레코드가 없으면 다른 사용자의 레코드만 읽는 중이므로 건너뜀
+                    Subscription current = state.get(entry.id);
+                    if (current != null) {
+                        try {
+                            state.put(entry.id, applyPatch(current, entry.patch));
+                        } catch (IOException e) {
+                            System.err.println("적용할 수 없는 변경 로그 항목 무시: " + logPath + " - " + e.getMessage());
+                        }
+                    }
+                } else if (OP_DELETE.equals(entry.op)) {
+                    state.remove(entry.id);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("변경 로그 읽기 실패: " + logPath + " - " + e.getMessage());
+        }
+    }
+    
+    /**
+     * 패치가 기본값이 있는 필드를 null 로 바꾸는지 (병합 패치의 null 은 삭제이므로 재생하면 모델 기본값으로 돌아감)
+     */
+    private boolean clearsDefaultedField(JsonNode patch) {
+        for (String field : defaultedFields) {
+            JsonNode value = patch.get(field);
+            if (value != null && value.isNull()) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Subscription applyPatch(Subscription current, JsonNode patch) throws IOException {
+        ObjectMapper mapper = jsonCodec.getObjectMapper();
+        return jsonCodec.subscriptionReader().readValue(JsonMergePatch.apply(mapper.valueToTree(current), patch));
+    }
+    
+    /**
+     * 목록 데이터 파일 읽기 (파일이 없거나 읽을 수 없으면 빈 목록)
      */
-    private void writeJsonFile(String filePath, Object data) {
+    private <T> List<T> readDataFile(String filePath, Decoder<T> decoder) {
+        File file = new File(filePath);
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        
         try {
-            File file = new File(filePath);
-            objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, data);
+            List<T> values = decoder.decode(file);
+            return values != null ? values : new ArrayList<>();
         } catch (IOException e) {
-            System.err.println("JSON 파일 저장 실패: " + filePath + " - " + e.getMessage());
+            System.err.println("데이터 파일 읽기 실패: " + filePath + " - " + e.getMessage());
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * 데이터 파일 저장 (임시 파일에 쓴 뒤 원자적으로 교체)
+     */
+    private void writeDataFile(String filePath, Encoder encoder) {
+        try {
+            groupCommitWriter.replace(Paths.get(filePath), encoder.encode());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("데이터 파일 저장 실패: " + filePath + " - " + e.getMessage());
             throw new RuntimeException("데이터 저장 실패", e);
         }
     }
 }
-
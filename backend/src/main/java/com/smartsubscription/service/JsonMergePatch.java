@@ -0,0 +1,71 @@
+package com.smartsubscription.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * JSON Merge Patch (RFC 7386)
+ * 
+ * apply: 패치의 필드로 대상을 덮어쓰고, 값이 null 인 필드는 지우며, 객체는 재귀적으로 합친다 (배열은 통째로 교체).
+ * diff: 두 문서의 차이를 같은 형식의 패치로 만든다 (apply(source, diff(source, target)) 는 target 과 같음).
+ */
+public final class JsonMergePatch {
+    
+    private JsonMergePatch() {
+    }
+    
+    /**
+     * 대상 문서에 패치 적용 (대상은 수정하지 않고 새 문서 반환)
+     */
+    public static JsonNode apply(JsonNode target, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject()
+            ? ((ObjectNode) target).deepCopy()
+            : JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            if (field.getValue().isNull()) {
+                result.remove(field.getKey());
+            } else {
+                result.set(field.getKey(), apply(result.get(field.getKey()), field.getValue()));
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * source 를 target 으로 바꾸는 패치 (바뀐 필드가 없으면 빈 객체)
+     */
+    public static ObjectNode diff(JsonNode source, JsonNode target) {
+        ObjectNode patch = JsonNodeFactory.instance.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> sourceFields = source.fields();
+        while (sourceFields.hasNext()) {
+            String name = sourceFields.next().getKey();
+            if (!target.has(name)) {
+                patch.putNull(name);
+            }
+        }
+        Iterator<Map.Entry<String, JsonNode>> targetFields = target.fields();
+        while (targetFields.hasNext()) {
+            Map.Entry<String, JsonNode> field = targetFields.next();
+            JsonNode before = source.get(field.getKey());
+            JsonNode after = field.getValue();
+            if (after.equals(before)) {
+                continue;
+            }
+            if (before != null && before.isObject() && after.isObject()) {
+                patch.set(field.getKey(), diff(before, after));
+            } else {
+                patch.set(field.getKey(), after);
+            }
+        }
+        return patch;
+    }
+}
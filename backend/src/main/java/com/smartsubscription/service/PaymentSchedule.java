@@ -0,0 +1,176 @@
+package com.smartsubscription.service;
+
+import com.smartsubscription.model.BillingCycle;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionStatus;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 구독 결제일 반복 전개 (결제 달력용)
+ * 
+ * 결제일은 nextPaymentDate 를 기준으로 주기마다 하나씩 필요할 때 계산하며 미리 목록으로 만들지 않는다.
+ * n 번째 결제일은 항상 기준일에서 바로 계산하므로 월말 보정이 누적되지 않는다 (1/31 → 2/28 → 3/31).
+ * 지난 결제 이력은 남지 않으므로 nextPaymentDate 이전 날짜는 만들지 않는다.
+ */
+public final class PaymentSchedule {
+    
+    /**
+     * 결제 예정 한 건
+     */
+    public record Occurrence(LocalDate date, Subscription subscription) {
+    }
+    
+    private PaymentSchedule() {
+    }
+    
+    /**
+     * 구독 하나의 [from, to) 결제일 (날짜 순)
+     * 활성 구독만 전개하며, 일시정지 구독은 pausedUntil 이 있을 때만 그날부터 전개한다.
+     * pausedUntil 이전 결제일은 건너뛴다.
+     */
+    public static Iterator<LocalDate> dates(Subscription subscription, LocalDate from, LocalDate to) {
+        LocalDate anchor = subscription.getNextPaymentDate();
+        SubscriptionStatus status = subscription.getStatus();
+        LocalDate pausedUntil = subscription.getPausedUntil();
+        if (anchor == null || !from.isBefore(to) || status == null
+                || status == SubscriptionStatus.CANCELLED || status == SubscriptionStatus.EXPIRED
+                || (status == SubscriptionStatus.PAUSED && pausedUntil == null)) {
+            return new Recurrence(anchor, BillingCycle.MONTHLY, 0, to, true);
+        }
+        
+        LocalDate start = from;
+        if (pausedUntil != null && pausedUntil.isAfter(start)) {
+            start = pausedUntil;
+        }
+        BillingCycle cycle = subscription.getBillingCycle() != null ? subscription.getBillingCycle() : BillingCycle.MONTHLY;
+        return new Recurrence(anchor, cycle, firstIndex(anchor, cycle, start), to, false);
+    }
+    
+    /**
+     * 여러 구독의 [from, to) 결제일을 날짜 순으로 합친 반복자 (같은 날짜면 subscriptions 순서)
+     * 구독마다 다음 결제일 하나씩만 힙에 두므로 기간이 길어도 메모리는 구독 수에 비례한다.
+     */
+    public static Iterator<Occurrence> merge(List<Subscription> subscriptions, LocalDate from, LocalDate to) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(1, subscriptions.size()),
+            Comparator.comparing(Head::date).thenComparingInt(Head::ordinal));
+        for (int i = 0; i < subscriptions.size(); i++) {
+            Subscription subscription = subscriptions.get(i);
+            Iterator<LocalDate> dates = dates(subscription, from, to);
+            if (dates.hasNext()) {
+                heads.add(new Head(dates.next(), i, subscription, dates));
+            }
+        }
+        
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return !heads.isEmpty();
+            }
+            
+            @Override
+            public Occurrence next() {
+                Head head = heads.poll();
+                if (head == null) {
+                    throw new NoSuchElementException();
+                }
+                if (head.dates().hasNext()) {
+                    heads.add(new Head(head.dates().next(), head.ordinal(), head.subscription(), head.dates()));
+                }
+                return new Occurrence(head.date(), head.subscription());
+            }
+        };
+    }
+    
+    /**
+     * 기준일에서 index 번째 결제일 (월 단위 주기는 말일 보정)
+     */
+    static LocalDate occurrence(LocalDate anchor, BillingCycle cycle, long index) {
+        if (cycle == BillingCycle.WEEKLY) {
+            return anchor.plusWeeks(index);
+        }
+        return anchor.plusMonths(index * monthsOf(cycle));
+    }
+    
+    /**
+     * start 이후 첫 결제일의 순번 (앞부분을 하나씩 세지 않고 바로 계산)
+     */
+    private static long firstIndex(LocalDate anchor, BillingCycle cycle, LocalDate start) {
+        if (!start.isAfter(anchor)) {
+            return 0;
+        }
+        long index;
+        if (cycle == BillingCycle.WEEKLY) {
+            index = (ChronoUnit.DAYS.between(anchor, start) + 6) / 7;
+        } else {
+            index = ChronoUnit.MONTHS.between(YearMonth.from(anchor), YearMonth.from(start)) / monthsOf(cycle);
+            // 말일 보정으로 같은 달 안에서 start 보다 앞설 수 있음
+            while (occurrence(anchor, cycle, index).isBefore(start)) {
+                index++;
+            }
+        }
+        return index;
+    }
+    
+    private static int monthsOf(BillingCycle cycle) {
+        return switch (cycle) {
+            case WEEKLY, MONTHLY -> 1;
+            case QUARTERLY -> 3;
+            case BIANNUAL -> 6;
+            case YEARLY -> 12;
+        };
+    }
+    
+    /**
+     * 힙 항목 (구독 하나의 다음 결제일)
+     */
+    private record Head(LocalDate date, int ordinal, Subscription subscription, Iterator<LocalDate> dates) {
+    }
+    
+    /**
+     * 구독 하나의 결제일 반복자
+     */
+    private static final class Recurrence implements Iterator<LocalDate> {
+        
+        private final LocalDate anchor;
+        private final BillingCycle cycle;
+        private final LocalDate to;
+        private long index;
+        private LocalDate next;
+        
+        Recurrence(LocalDate anchor, BillingCycle cycle, long index, LocalDate to, boolean empty) {
+            this.anchor = anchor;
+            this.cycle = cycle;
+            this.index = index;
+            this.to = to;
+            this.next = empty ? null : advance();
+        }
+        
+        private LocalDate advance() {
+            LocalDate date = occurrence(anchor, cycle, index++);
+            return date.isBefore(to) ? date : null;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+        
+        @Override
+        public LocalDate next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            LocalDate current = next;
+            next = advance();
+            return current;
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.smartsubscription.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 목록 순서용 분수 순위 키 (문자열 사전순으로 비교)
+ * 
+ * 키는 0-9A-Za-z 62진 소수의 소수부 자릿수로 보며, 마지막 자리가 '0' 이 아니므로
+ * 어떤 두 키 사이에도 항상 새 키를 만들 수 있다. 따라서 한 건을 옮길 때 그 레코드의 키만 바꾸면 된다.
+ */
+public final class RankKeys {
+    
+    private static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final char ZERO = DIGITS.charAt(0);
+    
+    private RankKeys() {
+    }
+    
+    /**
+     * lower 와 upper 사이의 키 (lower 가 null 이면 맨 앞, upper 가 null 이면 맨 뒤)
+     * 
+     * @throws IllegalArgumentException 올바르지 않은 키이거나 lower 가 upper 보다 뒤인 경우
+     */
+    public static String between(String lower, String upper) {
+        String a = lower != null ? lower : "";
+        if ((lower != null && !isValid(lower)) || (upper != null && !isValid(upper))
+                || (upper != null && a.compareTo(upper) >= 0)) {
+            throw new IllegalArgumentException("순위 키 범위가 올바르지 않습니다: " + lower + ", " + upper);
+        }
+        return midpoint(a, upper);
+    }
+    
+    /**
+     * lower 와 upper 사이에 차례로 놓일 키 count 개 (가운데부터 나눠 만들어 키 길이가 log(count) 만큼만 늘어남)
+     */
+    public static List<String> between(String lower, String upper, int count) {
+        List<String> keys = new ArrayList<>(count);
+        fill(lower, upper, count, keys);
+        return keys;
+    }
+    
+    /**
+     * 원하는 순서대로 나열한 현재 키로 새 키 계산
+     * 이미 증가하는 순서인 가장 긴 부분열(O(n log n))의 키는 그대로 두고 나머지만 그 사이에 새로 만든다.
+     * 반환 배열의 원소가 null 이면 해당 위치의 키를 바꾸지 않아도 된다 (없거나 올바르지 않은 키는 항상 새로 만듦).
+     */
+    public static String[] rerank(List<String> ranks) {
+        int n = ranks.size();
+        int[] tails = new int[n];
+        int[] previous = new int[n];
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            String rank = ranks.get(i);
+            previous[i] = -1;
+            if (rank == null || !isValid(rank)) {
+                continue;
+            }
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranks.get(tails[mid]).compareTo(rank) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            previous[i] = low > 0 ? tails[low - 1] : -1;
+            tails[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+        
+        boolean[] keep = new boolean[n];
+        for (int i = length > 0 ? tails[length - 1] : -1; i >= 0; i = previous[i]) {
+            keep[i] = true;
+        }
+        
+        String[] result = new String[n];
+        String lower = null;
+        int i = 0;
+        while (i < n) {
+            if (keep[i]) {
+                lower = ranks.get(i);
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < n && !keep[end]) {
+                end++;
+            }
+            String upper = end < n ? ranks.get(end) : null;
+            List<String> keys = between(lower, upper, end - i);
+            for (int k = 0; k < keys.size(); k++) {
+                result[i + k] = keys.get(k);
+            }
+            i = end;
+        }
+        return result;
+    }
+    
+    /**
+     * 키로 쓸 수 있는 값인지 (62진 자릿수만, 비어 있지 않고 '0' 으로 끝나지 않음)
+     */
+    public static boolean isValid(String rank) {
+        if (rank == null || rank.isEmpty() || rank.charAt(rank.length() - 1) == ZERO) {
+            return false;
+        }
+        for (int i = 0; i < rank.length(); i++) {
+            if (DIGITS.indexOf(rank.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void fill(String lower, String upper, int count, List<String> keys) {
+        if (count <= 0) {
+            return;
+        }
+        String middle = between(lower, upper);
+        int left = (count - 1) / 2;
+        fill(lower, middle, left, keys);
+        keys.add(middle);
+        fill(middle, upper, count - 1 - left, keys);
+    }
+    
+    /**
+     * a < b 인 두 키의 중간값 (a 는 빈 문자열 가능, b 가 null 이면 상한 없음)
+     */
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // 공통 접두사는 그대로 두고 나머지 자리에서 중간값을 찾음
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : ZERO) == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(a.substring(Math.min(n, a.length())), b.substring(n));
+            }
+        }
+        
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : DIGITS.length();
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        // 첫 자리가 이웃한 경우: b 의 첫 자리만으로 충분하면 그것을, 아니면 a 의 첫 자리 뒤에서 다시 찾음
+        if (b != null && b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+}
@@ -0,0 +1,185 @@
+package com.smartsubscription.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Snowflake 방식 ID 생성기 (사용자 / 구독 ID)
+ * 
+ * 브라우저에서 숫자로 그대로 다룰 수 있도록 53비트 안에 맞춘다.
+ * <pre>
+ * | 41비트: 기준 시각(2024-01-01 UTC) 이후 ms | 5비트: 노드 ID | 7비트: 시퀀스 |
+ * </pre>
+ * 마지막으로 발급한 (시각, 시퀀스) 를 AtomicLong 하나에 담아 CAS 로 올리므로 락 없이 동작한다.
+ * 같은 ms 에 시퀀스(128개)를 다 쓰면 다음 ms 를 미리 당겨 쓰고, 시계가 뒤로 가도 마지막 값 다음부터 발급하므로
+ * 한 노드 안에서는 항상 증가한다.
+ * 
+ * 재시작 후 시계가 뒤로 가 있어도 겹치지 않도록 발급 가능한 시각의 상한(예약 시각)을 파일에 미리 기록해 두고,
+ * 기동 시 그 시각 이후부터 발급한다. 예약 시각을 넘는 ID 는 예약을 기록한 뒤에만 발급하며,
+ * 기동 시 예약을 기록하지 못하면 시작하지 않는다. 노드마다 storage.id.node-id 를 다르게 설정해야 한다.
+ * 기존 currentTimeMillis 기반 ID(약 2^41 미만)보다 항상 큰 값이 나오므로 기존 데이터와도 겹치지 않는다.
+ */
+@Component
+public class SnowflakeIdGenerator {
+    
+    // 2024-01-01T00:00:00Z
+    static final long EPOCH_MILLIS = 1704067200000L;
+    
+    static final int NODE_BITS = 5;
+    static final int SEQUENCE_BITS = 7;
+    
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MAX_ELAPSED_MILLIS = (1L << 41) - 1;
+    
+    // 예약 시각을 한 번에 늘리는 폭, 남은 폭이 절반 아래로 내려가면 다시 늘림
+    private static final long RESERVE_MILLIS = 60_000;
+    
+    // 예약 기록에 실패한 뒤 다시 시도하기까지의 간격
+    private static final long RETRY_MILLIS = 1_000;
+    
+    private final long nodeId;
+    private final Path reservationFile;
+    
+    // 마지막으로 발급한 (기준 시각 이후 ms << SEQUENCE_BITS) | 시퀀스
+    private final AtomicLong last;
+    
+    // 이 시각(기준 시각 이후 ms)까지는 재시작 후에도 다시 발급하지 않음
+    private volatile long reservedUntil;
+    private final ReentrantLock reserveLock = new ReentrantLock();
+    
+    // 마지막 예약 기록 실패 시각 (currentTimeMillis, 실패 직후에는 매 발급마다 다시 쓰지 않음)
+    private volatile long lastFailure;
+    
+    public SnowflakeIdGenerator(@Value("${storage.id.node-id:0}") int nodeId,
+                                @Value("${storage.id.state-dir:data}") String stateDir) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("storage.id.node-id 는 0~" + MAX_NODE_ID + " 사이여야 합니다: " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.reservationFile = Paths.get(stateDir, String.format("id-node-%02d.reserved", nodeId));
+        
+        // 이전 실행에서 예약한 시각 이후부터 발급
+        long previousReservation = readReservation();
+        long start = Math.max(elapsedMillis(), previousReservation + 1);
+        this.last = new AtomicLong((start << SEQUENCE_BITS) - 1);
+        this.reservedUntil = previousReservation;
+        try {
+            writeReservation(start);
+        } catch (IOException e) {
+            throw new IllegalStateException("ID 예약 시각을 기록할 수 없습니다: " + reservationFile, e);
+        }
+    }
+    
+    /**
+     * 새 ID 발급
+     */
+    public long nextId() {
+        long next;
+        while (true) {
+            long previous = last.get();
+            next = Math.max(elapsedMillis() << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, next)) {
+                break;
+            }
+        }
+        
+        long elapsed = next >>> SEQUENCE_BITS;
+        if (elapsed > MAX_ELAPSED_MILLIS) {
+            throw new IllegalStateException("ID 시각 범위를 초과했습니다.");
+        }
+        if (elapsed > reservedUntil) {
+            awaitReservation(elapsed);
+        } else if (elapsed + RESERVE_MILLIS / 2 > reservedUntil) {
+            extendReservation(elapsed);
+        }
+        return (elapsed << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | (next & SEQUENCE_MASK);
+    }
+    
+    /**
+     * 예약 시각을 미리 늘림 (아직 예약 안의 ID 이므로 다른 스레드가 기록 중이거나 기록에 실패해도 발급은 계속함)
+     */
+    private void extendReservation(long from) {
+        if (System.currentTimeMillis() - lastFailure < RETRY_MILLIS || !reserveLock.tryLock()) {
+            return;
+        }
+        try {
+            writeReservation(from);
+        } catch (IOException e) {
+            lastFailure = System.currentTimeMillis();
+            System.err.println("ID 예약 시각 기록 실패: " + e.getMessage());
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+    
+    /**
+     * elapsed 가 예약 안에 들 때까지 기다림 (기록 중인 예약을 기다리거나 직접 기록, 기록할 수 없으면 예외)
+     */
+    private void awaitReservation(long elapsed) {
+        reserveLock.lock();
+        try {
+            if (elapsed <= reservedUntil) {
+                return;
+            }
+            if (System.currentTimeMillis() - lastFailure < RETRY_MILLIS) {
+                throw new IllegalStateException("ID 예약 시각을 기록할 수 없어 ID 를 발급하지 않습니다.");
+            }
+            try {
+                writeReservation(elapsed);
+            } catch (IOException e) {
+                lastFailure = System.currentTimeMillis();
+                throw new IllegalStateException("ID 예약 시각 기록 실패: " + e.getMessage(), e);
+            }
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+    
+    /**
+     * 예약 시각을 from + RESERVE_MILLIS 로 늘려 기록 (생성자 또는 reserveLock 안에서 호출)
+     */
+    private void writeReservation(long from) throws IOException {
+        long until = Math.max(from, elapsedMillis()) + RESERVE_MILLIS;
+        if (until <= reservedUntil) {
+            return;
+        }
+        Files.createDirectories(reservationFile.getParent());
+        Path temp = reservationFile.resolveSibling(reservationFile.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(Long.toString(until).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temp, reservationFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        reservedUntil = until;
+    }
+    
+    private long readReservation() {
+        try {
+            if (Files.exists(reservationFile)) {
+                return Long.parseLong(Files.readString(reservationFile, StandardCharsets.US_ASCII).trim());
+            }
+        } catch (IOException | NumberFormatException e) {
+            System.err.println("ID 예약 시각 읽기 실패 (현재 시각부터 발급): " + e.getMessage());
+        }
+        return 0L;
+    }
+    
+    private static long elapsedMillis() {
+        return System.currentTimeMillis() - EPOCH_MILLIS;
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartsubscription.service;
+
+/**
+ * 저장 대기열이 가득 차 변경을 받을 수 없음 (write-behind 모드의 역압, HTTP 503 으로 응답)
+ */
+public class StorageBusyException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public StorageBusyException(String message) {
+        super(message);
+    }
+}
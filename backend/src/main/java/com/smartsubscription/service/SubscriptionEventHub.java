@@ -0,0 +1,310 @@
+package com.smartsubscription.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 구독 변경 이벤트 스트림 (Server-Sent Events)
+ * 
+ * 사용자마다 최근 이벤트를 링 버퍼에 보관하고, 연결된 스트림(SseEmitter)마다 보낼 이벤트를 쌓아 두면
+ * 전송 스레드가 순서대로 보낸다. 발행은 버퍼와 대기열에 넣기만 하므로 느린 클라이언트가 저장 경로를 막지 않는다.
+ * 이벤트 ID 는 SnowflakeIdGenerator 로 발급하므로 재시작 후에도 계속 증가하며,
+ * 재연결한 클라이언트는 마지막으로 받은 ID(Last-Event-ID) 이후의 이벤트만 다시 받는다.
+ * 놓친 이벤트가 이미 버퍼에서 밀려났거나 버퍼가 만들어지기 전의 ID 이면 reset 이벤트를 보내 전체 목록을 다시 읽게 한다.
+ * 연결이 없는 사용자의 버퍼는 일정 시간이 지나면 버린다.
+ */
+@Component
+public class SubscriptionEventHub {
+    
+    // 사용자별로 보관하는 최근 이벤트 수
+    private static final int BUFFER_SIZE = 256;
+    
+    // 스트림 하나에 보내지 못하고 쌓인 메시지가 이만큼이면 연결을 끊음 (다시 연결하면 Last-Event-ID 로 이어 받음)
+    private static final int MAX_OUTBOX = BUFFER_SIZE * 2;
+    
+    // 스트림 한 번의 최대 유지 시간 (끊기면 브라우저가 Last-Event-ID 로 다시 연결)
+    private static final long EMITTER_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(30);
+    
+    // 연결도 발행도 없는 사용자의 버퍼를 유지하는 시간 (이후 재연결하면 reset)
+    private static final long IDLE_CHANNEL_MS = TimeUnit.MINUTES.toMillis(5);
+    
+    // 스트림 전송 스레드 수 (멈춘 클라이언트는 스레드 하나만 붙잡음)
+    private static final int SENDER_THREADS = 4;
+    
+    /**
+     * 발행한 이벤트 한 건 (data 는 발행 시점에 직렬화한 JSON)
+     */
+    private record Event(long id, String type, String data) {
+    }
+    
+    /**
+     * 연결된 스트림 하나와 아직 보내지 않은 메시지 (전송은 한 번에 한 스레드만)
+     */
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final Deque<SseEmitter.SseEventBuilder> outbox = new ArrayDeque<>();
+        boolean sending;
+        boolean closed;
+        
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+    
+    /**
+     * 사용자 한 명의 이벤트 버퍼와 연결된 스트림 (채널 락 안에서는 전송하지 않음)
+     */
+    private static class Channel {
+        final Deque<Event> buffer = new ArrayDeque<>();
+        final List<Subscriber> subscribers = new ArrayList<>();
+        
+        // 이 ID 이하의 이벤트는 버퍼에 없음 (밀려났거나 채널이 만들어지기 전)
+        long floor;
+        
+        // 마지막 발행 / 연결 해제 시각 (연결이 없을 때 버퍼를 버리는 기준)
+        long lastActivity;
+        
+        // 맵에서 제거됨 (이 채널을 잡은 요청은 새 채널로 다시 시도)
+        boolean evicted;
+        
+        Channel(long floor) {
+            this.floor = floor;
+            this.lastActivity = System.currentTimeMillis();
+        }
+    }
+    
+    private final SnowflakeIdGenerator idGenerator;
+    
+    private final ObjectMapper objectMapper;
+    
+    private final Map<Long, Channel> channels = new ConcurrentHashMap<>();
+    
+    private final ExecutorService sender;
+    
+    public SubscriptionEventHub(SnowflakeIdGenerator idGenerator, ObjectMapper objectMapper) {
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(SENDER_THREADS, task -> {
+            Thread thread = new Thread(task, "subscription-event-sender-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    public void stop() {
+        sender.shutdownNow();
+    }
+    
+    /**
+     * 스트림 연결 (lastEventId 가 있으면 그 이후 이벤트를 먼저 보냄)
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        Subscriber subscriber = new Subscriber(emitter);
+        
+        Channel channel = null;
+        while (channel == null) {
+            Channel candidate = channelOf(userId);
+            synchronized (candidate) {
+                if (candidate.evicted) {
+                    continue;
+                }
+                if (lastEventId != null) {
+                    if (lastEventId < candidate.floor) {
+                        // 다음 재연결은 지금 버퍼의 마지막 이벤트 이후부터 받도록 그 ID 로 보냄
+                        long resetId = candidate.buffer.isEmpty() ? candidate.floor : candidate.buffer.peekLast().id();
+                        subscriber.outbox.add(toMessage(new Event(resetId, "reset", "{}")));
+                    } else {
+                        for (Event event : candidate.buffer) {
+                            if (event.id() > lastEventId) {
+                                subscriber.outbox.add(toMessage(event));
+                            }
+                        }
+                    }
+                }
+                // 연결 직후 한 번 보내 프록시/브라우저가 스트림을 바로 열도록 함
+                subscriber.outbox.add(SseEmitter.event().comment("connected"));
+                candidate.subscribers.add(subscriber);
+                channel = candidate;
+            }
+        }
+        
+        Channel joined = channel;
+        Runnable remove = () -> {
+            synchronized (joined) {
+                if (joined.subscribers.remove(subscriber)) {
+                    joined.lastActivity = System.currentTimeMillis();
+                }
+            }
+            close(subscriber, null);
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(error -> remove.run());
+        
+        synchronized (subscriber) {
+            subscriber.sending = true;
+        }
+        sender.execute(() -> drain(subscriber));
+        return emitter;
+    }
+    
+    /**
+     * 이벤트 발행 (저장이 끝난 뒤 사용자 락 안에서 호출하면 커밋 순서대로 전달됨)
+     * data 는 이 시점에 직렬화하고 전송은 전송 스레드가 하므로 네트워크를 기다리지 않는다.
+     */
+    public void publish(Long userId, String type, Object data) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            System.err.println("구독 이벤트 직렬화 실패: " + type + " - " + e.getMessage());
+            return;
+        }
+        
+        List<Subscriber> overflowed = new ArrayList<>();
+        boolean published = false;
+        while (!published) {
+            Channel channel = channelOf(userId);
+            synchronized (channel) {
+                if (channel.evicted) {
+                    continue;
+                }
+                Event event = new Event(idGenerator.nextId(), type, json);
+                channel.buffer.addLast(event);
+                if (channel.buffer.size() > BUFFER_SIZE) {
+                    channel.floor = channel.buffer.removeFirst().id();
+                }
+                channel.lastActivity = System.currentTimeMillis();
+                offerAll(channel, () -> toMessage(event), overflowed);
+                published = true;
+            }
+        }
+        closeOverflowed(overflowed);
+    }
+    
+    /**
+     * 연결 유지용 주석 전송 (끊긴 연결을 정리), 연결 없이 오래된 사용자 버퍼 제거
+     */
+    @Scheduled(fixedDelay = 20000)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        List<Subscriber> overflowed = new ArrayList<>();
+        for (Iterator<Map.Entry<Long, Channel>> it = channels.entrySet().iterator(); it.hasNext(); ) {
+            Channel channel = it.next().getValue();
+            synchronized (channel) {
+                if (channel.subscribers.isEmpty()) {
+                    if (now - channel.lastActivity >= IDLE_CHANNEL_MS) {
+                        channel.evicted = true;
+                        it.remove();
+                    }
+                } else {
+                    offerAll(channel, () -> SseEmitter.event().comment("heartbeat"), overflowed);
+                }
+            }
+        }
+        closeOverflowed(overflowed);
+    }
+    
+    /**
+     * 채널의 모든 스트림 대기열에 메시지 추가 (SseEventBuilder 는 한 번만 쓸 수 있어 스트림마다 새로 만듦)
+     * 대기열이 가득 찬 스트림은 채널에서 빼고 overflowed 에 담는다 (채널 락 밖에서 닫음).
+     */
+    private void offerAll(Channel channel, Supplier<SseEmitter.SseEventBuilder> message,
+                          List<Subscriber> overflowed) {
+        for (Iterator<Subscriber> it = channel.subscribers.iterator(); it.hasNext(); ) {
+            Subscriber subscriber = it.next();
+            boolean schedule;
+            synchronized (subscriber) {
+                if (subscriber.closed || subscriber.outbox.size() >= MAX_OUTBOX) {
+                    it.remove();
+                    overflowed.add(subscriber);
+                    continue;
+                }
+                subscriber.outbox.addLast(message.get());
+                schedule = !subscriber.sending;
+                subscriber.sending = true;
+            }
+            if (schedule) {
+                sender.execute(() -> drain(subscriber));
+            }
+        }
+    }
+    
+    private void closeOverflowed(List<Subscriber> overflowed) {
+        for (Subscriber subscriber : overflowed) {
+            close(subscriber, new IOException("스트림 전송 지연으로 연결을 끊습니다."));
+        }
+    }
+    
+    /**
+     * 스트림 하나의 대기열을 비울 때까지 전송 (전송 스레드에서 실행)
+     */
+    private void drain(Subscriber subscriber) {
+        while (true) {
+            SseEmitter.SseEventBuilder message;
+            synchronized (subscriber) {
+                message = subscriber.closed ? null : subscriber.outbox.pollFirst();
+                if (message == null) {
+                    subscriber.sending = false;
+                    return;
+                }
+            }
+            try {
+                subscriber.emitter.send(message);
+            } catch (IOException | IllegalStateException e) {
+                close(subscriber, new IOException("스트림 전송 실패", e));
+                return;
+            }
+        }
+    }
+    
+    /**
+     * 스트림 닫기 (error 가 있으면 오류로 종료, 채널에서의 제거는 완료 콜백이 처리)
+     */
+    private void close(Subscriber subscriber, IOException error) {
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+            subscriber.outbox.clear();
+        }
+        if (error != null) {
+            subscriber.emitter.completeWithError(error);
+        }
+    }
+    
+    private Channel channelOf(Long userId) {
+        // 새 채널은 지금 발급한 ID 를 기준으로 하므로 이전 채널(또는 이전 실행)에서 받은 ID 로 연결하면 reset
+        return channels.computeIfAbsent(userId, id -> new Channel(idGenerator.nextId()));
+    }
+    
+    private static SseEmitter.SseEventBuilder toMessage(Event event) {
+        return SseEmitter.event()
+            .id(Long.toString(event.id()))
+            .name(event.type())
+            .data(event.data(), MediaType.APPLICATION_JSON);
+    }
+}
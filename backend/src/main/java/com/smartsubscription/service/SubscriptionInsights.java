@@ -0,0 +1,211 @@
+package com.smartsubscription.service;
+
+import com.smartsubscription.model.BillingCycle;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.SubscriptionCategory;
+import com.smartsubscription.model.SubscriptionStatus;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 절약 기회 찾기 (중복 서비스, 같은 카테고리 통합, 연간 결제 전환, 사용이 적을 수 있는 고가 구독)
+ * 
+ * 활성 구독으로 (서비스 식별자 → 구독), (카테고리 → 구독) 역색인을 만들고
+ * 같은 색인 항목에 모인 구독끼리만 묶으므로 모든 쌍을 비교하지 않는다 (구독 수 + 색인 항목 수에 비례).
+ * 서비스 식별자는 이름에서 요금제 / 지역 표기를 뺀 토큰 전체이므로, "music" 같은 일반 단어 하나만 겹치는 서로 다른 서비스는 묶지 않는다.
+ * 금액은 호출하는 쪽이 한 통화로 환산한 월 금액을 넘기며, 기준 금액도 같은 통화로 받는다.
+ */
+public final class SubscriptionInsights {
+    
+    // 요금제 / 지역 표기 등 서비스를 구분하지 못하는 토큰
+    private static final Set<String> STOP_TOKENS = Set.of(
+        "premium", "plus", "pro", "basic", "standard", "family", "individual", "student", "duo", "team",
+        "business", "personal", "plan", "monthly", "yearly", "annual", "subscription", "the", "app", "one",
+        "with", "ads", "프리미엄", "플러스", "베이직", "스탠다드", "패밀리", "요금제", "구독", "개인", "학생", "광고형");
+    
+    // 한글 서비스 이름 → 영문 토큰 (넷플릭스 / Netflix 를 같은 서비스로 봄)
+    private static final Map<String, String> ALIASES = Map.ofEntries(
+        Map.entry("넷플릭스", "netflix"), Map.entry("스포티파이", "spotify"), Map.entry("유튜브", "youtube"),
+        Map.entry("디즈니", "disney"), Map.entry("구글", "google"), Map.entry("깃허브", "github"),
+        Map.entry("노션", "notion"), Map.entry("아이클라우드", "icloud"), Map.entry("마이크로소프트", "microsoft"),
+        Map.entry("애플", "apple"), Map.entry("어도비", "adobe"), Map.entry("챗gpt", "chatgpt"),
+        Map.entry("드롭박스", "dropbox"), Map.entry("아마존", "amazon"));
+    
+    // 사용 빈도가 낮은 편인 카테고리
+    private static final Set<SubscriptionCategory> RARELY_USED_CATEGORIES =
+        Set.of(SubscriptionCategory.PRODUCTIVITY, SubscriptionCategory.AI, SubscriptionCategory.SOCIAL);
+    
+    // 연간 결제로 바꿀 때 가정하는 할인율
+    private static final BigDecimal YEARLY_DISCOUNT = new BigDecimal("0.15");
+    
+    // 등록 후 이 기간(개월)이 지나지 않은 고가 구독은 아직 사용 여부를 모르는 것으로 봄
+    private static final long SHORT_TERM_MONTHS = 2;
+    
+    private static final BigDecimal TWELVE = BigDecimal.valueOf(12);
+    
+    /**
+     * 절약 기회 한 건 (type: duplicate | integration | yearly | unused, potentialSavings 는 연간 금액)
+     */
+    public record Opportunity(String type, String key, List<Subscription> subscriptions, BigDecimal monthly,
+                              BigDecimal potentialSavings, String reason) {
+    }
+    
+    /**
+     * 판단 기준 금액 (월 금액, 환산 통화 기준)
+     * expensiveMonthly 이상이면 고가 구독, 연간 결제 절약액이 minimumYearlySavings 이상이어야 제안한다.
+     */
+    public record Thresholds(BigDecimal expensiveMonthly, BigDecimal minimumYearlySavings) {
+    }
+    
+    private SubscriptionInsights() {
+    }
+    
+    /**
+     * 절약 기회 목록 (절약 금액이 큰 순)
+     * 
+     * @param monthly 구독의 월 환산 금액 (환산할 수 없으면 null, 그 구독은 금액 비교에서 빠짐)
+     */
+    public static List<Opportunity> analyze(List<Subscription> subscriptions, Function<Subscription, BigDecimal> monthly,
+                                            Thresholds thresholds, LocalDateTime now) {
+        List<Subscription> active = new ArrayList<>();
+        List<BigDecimal> amounts = new ArrayList<>();
+        for (Subscription subscription : subscriptions) {
+            if (subscription.getStatus() == SubscriptionStatus.ACTIVE) {
+                active.add(subscription);
+                amounts.add(monthly.apply(subscription));
+            }
+        }
+        
+        // 역색인: 서비스 식별자 → 구독 위치, 카테고리 → 구독 위치
+        String[] services = new String[active.size()];
+        Map<String, List<Integer>> byService = new LinkedHashMap<>();
+        Map<SubscriptionCategory, List<Integer>> byCategory = new EnumMap<>(SubscriptionCategory.class);
+        for (int i = 0; i < active.size(); i++) {
+            services[i] = serviceOf(active.get(i).getName());
+            if (services[i] != null) {
+                byService.computeIfAbsent(services[i], key -> new ArrayList<>()).add(i);
+            }
+            if (active.get(i).getCategory() != null) {
+                byCategory.computeIfAbsent(active.get(i).getCategory(), key -> new ArrayList<>()).add(i);
+            }
+        }
+        
+        List<Opportunity> opportunities = new ArrayList<>();
+        
+        // 1. 같은 서비스 중복: 서비스 식별자가 같은 구독끼리만 묶음
+        for (Map.Entry<String, List<Integer>> entry : byService.entrySet()) {
+            List<Integer> members = entry.getValue();
+            if (members.size() >= 2) {
+                opportunities.add(keepMostExpensive("duplicate", entry.getKey(), members, active, amounts,
+                    "같은 서비스를 " + members.size() + "개 구독 중"));
+            }
+        }
+        
+        // 2. 같은 카테고리 통합 (같은 서비스를 여러 개 구독 중이면 하나만 셈)
+        for (Map.Entry<SubscriptionCategory, List<Integer>> entry : byCategory.entrySet()) {
+            List<Integer> members = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (int i : entry.getValue()) {
+                if (services[i] == null || seen.add(services[i])) {
+                    members.add(i);
+                }
+            }
+            if (members.size() >= 2) {
+                opportunities.add(keepMostExpensive("integration", entry.getKey().toJson(), members, active, amounts,
+                    entry.getKey().getDisplayName() + " 카테고리에 비슷한 서비스 " + members.size() + "개"));
+            }
+        }
+        
+        // 3. 연간 결제 전환 / 4. 사용이 적을 수 있는 고가 구독
+        for (int i = 0; i < active.size(); i++) {
+            Subscription subscription = active.get(i);
+            BigDecimal amount = amounts.get(i);
+            if (amount == null) {
+                continue;
+            }
+            BillingCycle cycle = subscription.getBillingCycle() != null ? subscription.getBillingCycle() : BillingCycle.MONTHLY;
+            if (cycle == BillingCycle.MONTHLY) {
+                BigDecimal savings = amount.multiply(TWELVE).multiply(YEARLY_DISCOUNT).setScale(amount.scale(), RoundingMode.HALF_UP);
+                if (savings.compareTo(thresholds.minimumYearlySavings()) >= 0) {
+                    opportunities.add(new Opportunity("yearly", String.valueOf(subscription.getId()), List.of(subscription),
+                        amount, savings, "연간 결제로 바꾸면 약 15% 할인"));
+                }
+            }
+            
+            if (amount.compareTo(thresholds.expensiveMonthly()) >= 0) {
+                boolean shortTerm = subscription.getCreatedAt() != null
+                    && ChronoUnit.MONTHS.between(subscription.getCreatedAt(), now) < SHORT_TERM_MONTHS;
+                boolean rarelyUsed = RARELY_USED_CATEGORIES.contains(subscription.getCategory());
+                if (shortTerm || rarelyUsed) {
+                    opportunities.add(new Opportunity("unused", String.valueOf(subscription.getId()), List.of(subscription),
+                        amount, amount.multiply(TWELVE), shortTerm ? "짧은 사용 기간" : "사용 빈도 낮은 카테고리"));
+                }
+            }
+        }
+        
+        opportunities.sort(Comparator.comparing(Opportunity::potentialSavings).reversed()
+            .thenComparing(Opportunity::type).thenComparing(Opportunity::key));
+        return opportunities;
+    }
+    
+    /**
+     * 서비스 이름 → 정규화한 토큰 (NFKC, 소문자, 괄호 안 지역/요금제 표기와 불용어 제외, 한 글자 토큰 제외)
+     */
+    static List<String> tokens(String name) {
+        List<String> tokens = new ArrayList<>();
+        if (name == null) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT)
+            .replaceAll("\\([^)]*\\)|\\[[^]]*]", " ");
+        for (String token : normalized.split("[^\\p{L}\\p{N}]+")) {
+            String resolved = ALIASES.getOrDefault(token, token);
+            if (resolved.length() >= 2 && !STOP_TOKENS.contains(resolved) && !tokens.contains(resolved)) {
+                tokens.add(resolved);
+            }
+        }
+        return tokens;
+    }
+    
+    /**
+     * 서비스 이름 → 서비스 식별자 (정규화한 토큰을 공백으로 이은 것, 남는 토큰이 없으면 null)
+     * "넷플릭스 프리미엄" 과 "Netflix" 는 같고, "Apple Music" 과 "YouTube Music" 은 다르다.
+     */
+    static String serviceOf(String name) {
+        List<String> tokens = tokens(name);
+        return tokens.isEmpty() ? null : String.join(" ", tokens);
+    }
+    
+    /**
+     * 묶인 구독 중 가장 비싼 하나만 남기고 나머지를 해지할 때의 연간 절약액
+     */
+    private static Opportunity keepMostExpensive(String type, String key, List<Integer> members, List<Subscription> active,
+                                                 List<BigDecimal> amounts, String reason) {
+        List<Subscription> subscriptions = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal max = BigDecimal.ZERO;
+        for (int i : members) {
+            subscriptions.add(active.get(i));
+            BigDecimal amount = amounts.get(i);
+            if (amount != null) {
+                total = total.add(amount);
+                max = max.max(amount);
+            }
+        }
+        return new Opportunity(type, key, subscriptions, total, total.subtract(max).multiply(TWELVE), reason);
+    }
+}
@@ -0,0 +1,92 @@
+package com.smartsubscription.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 구독 배열 파일(JSON, Smile, CBOR)을 토큰 단위로 읽으며 특정 사용자의 레코드만 만들어내는 리더
+ * 
+ * userId 필드를 만나기 전까지의 필드만 잠시 버퍼에 담아 두고,
+ * 다른 사용자의 레코드로 판명되면 나머지 필드는 skipChildren() 으로 건너뛴다.
+ * 전체 파일을 역직렬화한 뒤 걸러내는 방식보다 할당이 훨씬 적다.
+ * (스냅샷은 id, userId 를 각 레코드의 앞쪽에 기록하므로 버퍼에 담기는 필드는 보통 id 하나뿐이다.)
+ */
+public final class SubscriptionStreamReader {
+    
+    private SubscriptionStreamReader() {}
+    
+    /**
+     * 파일에서 userId 가 일치하는 레코드만 읽기 (파일이 없으면 빈 목록)
+     * 
+     * @param recordReader 레코드 한 건을 만드는 리더 (반환 목록의 원소 타입을 정함)
+     */
+    public static <T> List<T> readUserRecords(ObjectReader recordReader, File file, long userId) throws IOException {
+        if (!file.exists()) {
+            return new ArrayList<>();
+        }
+        return readUserRecords(recordReader, recordReader.createParser(file), userId);
+    }
+    
+    /**
+     * 주어진 파서(JSON / Smile / CBOR)에서 userId 가 일치하는 레코드만 읽기 (다 읽으면 파서를 닫음)
+     */
+    public static <T> List<T> readUserRecords(ObjectReader recordReader, JsonParser source, long userId) throws IOException {
+        List<T> result = new ArrayList<>();
+        try (JsonParser parser = source) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                return result;
+            }
+            
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                TokenBuffer buffer = new TokenBuffer(parser);
+                buffer.writeStartObject();
+                boolean matched = false;
+                boolean skipped = false;
+                
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String field = parser.currentName();
+                    parser.nextToken();
+                    
+                    if (!matched && "userId".equals(field)) {
+                        if (!isUser(parser, userId)) {
+                            // 다른 사용자의 레코드: 남은 필드는 만들지 않고 건너뜀
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                parser.nextToken();
+                                parser.skipChildren();
+                            }
+                            skipped = true;
+                            break;
+                        }
+                        matched = true;
+                    }
+                    
+                    buffer.writeFieldName(field);
+                    buffer.copyCurrentStructure(parser);
+                }
+                
+                if (matched && !skipped) {
+                    buffer.writeEndObject();
+                    try (JsonParser recordParser = buffer.asParser(recordReader)) {
+                        result.add(recordReader.readValue(recordParser));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+    
+    private static boolean isUser(JsonParser parser, long userId) throws IOException {
+        if (parser.currentToken().isNumeric()) {
+            return parser.getLongValue() == userId;
+        }
+        String text = parser.getValueAsString();
+        return text != null && text.equals(String.valueOf(userId));
+    }
+}
@@ -0,0 +1,71 @@
+package com.smartsubscription.tool;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.service.DataFileEncoding;
+import com.smartsubscription.service.DataFileFormat;
+import com.smartsubscription.service.JsonCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * 데이터 파일 저장 형식 비교 (크기 / 쓰기 / 읽기)
+ * 
+ * 생성한 구독 데이터셋을 json-pretty, json, smile, cbor 각각 gzip 유무로 인코딩해
+ * 파일 크기와 인코딩(쓰기), 파일에서 디코딩(읽기)에 걸리는 시간을 비교한다.
+ * 
+ * 실행: java -cp target/smart-subscription-app-1.0.0.jar \
+ *         -Dloader.main=com.smartsubscription.tool.DataFileFormatBenchmark \
+ *         org.springframework.boot.loader.launch.PropertiesLauncher [사용자 수] [사용자당 구독 수] [반복 횟수]
+ */
+public class DataFileFormatBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int perUser = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        
+        JsonCodec codec = new JsonCodec(false);
+        List<Subscription> subscriptions = codec.getObjectMapper().convertValue(
+            ReadUserSubscriptionsBenchmark.generate(users, perUser), new TypeReference<List<Subscription>>() {});
+        System.out.printf("데이터셋: 사용자 %d명 x 구독 %d건, 반복 %d회%n", users, perUser, iterations);
+        System.out.printf("%-18s %14s %12s %12s%n", "형식", "크기(bytes)", "쓰기 ms/op", "읽기 ms/op");
+        
+        for (DataFileFormat format : DataFileFormat.values()) {
+            for (boolean gzip : new boolean[] {false, true}) {
+                DataFileEncoding encoding = new DataFileEncoding(format, gzip);
+                File file = Files.createTempFile("subscriptions-" + format.getConfigName(), ".dat").toFile();
+                file.deleteOnExit();
+                
+                // JIT 예열
+                for (int i = 0; i < 3; i++) {
+                    Files.write(file.toPath(), codec.encodeSubscriptions(subscriptions, encoding));
+                    codec.decodeSubscriptions(file);
+                }
+                
+                long start = System.nanoTime();
+                byte[] content = null;
+                for (int i = 0; i < iterations; i++) {
+                    content = codec.encodeSubscriptions(subscriptions, encoding);
+                }
+                double writeMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+                Files.write(file.toPath(), content);
+                
+                start = System.nanoTime();
+                int read = 0;
+                for (int i = 0; i < iterations; i++) {
+                    read = codec.decodeSubscriptions(file).size();
+                }
+                double readMs = (System.nanoTime() - start) / 1_000_000.0 / iterations;
+                if (read != subscriptions.size()) {
+                    throw new IllegalStateException(encoding + " 왕복 결과 불일치: " + read);
+                }
+                
+                System.out.printf("%-18s %,14d %12.2f %12.2f%n", encoding, content.length, writeMs, readMs);
+            }
+        }
+    }
+}
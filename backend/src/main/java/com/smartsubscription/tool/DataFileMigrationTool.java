@@ -0,0 +1,91 @@
+package com.smartsubscription.tool;
+
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.model.User;
+import com.smartsubscription.service.BinarySnapshot;
+import com.smartsubscription.service.DataFileEncoding;
+import com.smartsubscription.service.DataFileFormat;
+import com.smartsubscription.service.JsonCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 데이터 파일 저장 형식 변환 도구
+ * 
+ * users.json 과 구독 샤드 스냅샷(subscriptions/shard-XX.json)을 지정한 형식으로 다시 쓴다.
+ * 읽을 때는 기존 파일의 형식을 판별하므로 어떤 형식에서든 변환할 수 있다.
+ * 서버를 멈춘 상태에서 실행하고, 변환 후 application.yml 의 storage.encoding 도 같은 값으로 맞춘다.
+ * (맞추지 않아도 읽기는 되지만 다음 저장부터 설정 형식으로 돌아간다.)
+ * 
+ * 실행: java -cp target/smart-subscription-app-1.0.0.jar \
+ *         -Dloader.main=com.smartsubscription.tool.DataFileMigrationTool \
+ *         org.springframework.boot.loader.launch.PropertiesLauncher &lt;형식&gt; [all|users|subscriptions] [데이터 디렉토리]
+ * 형식: json-pretty | json | smile | cbor, 뒤에 +gzip 을 붙이면 gzip 압축 (예: smile+gzip)
+ */
+public class DataFileMigrationTool {
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("사용법: DataFileMigrationTool <형식> [all|users|subscriptions] [데이터 디렉토리]");
+            System.exit(1);
+        }
+        
+        DataFileEncoding target = DataFileEncoding.parse(args[0]);
+        String scope = args.length > 1 ? args[1] : "all";
+        Path dataDir = Paths.get(args.length > 2 ? args[2] : "data");
+        JsonCodec codec = new JsonCodec(false);
+        
+        if (scope.equals("all") || scope.equals("users")) {
+            Path usersFile = dataDir.resolve("users.json");
+            if (Files.exists(usersFile)) {
+                List<User> users = codec.decodeUsers(usersFile.toFile());
+                convert(usersFile, target, codec.encodeUsers(users, target));
+            }
+        }
+        
+        if (scope.equals("all") || scope.equals("subscriptions")) {
+            Path shardDir = dataDir.resolve("subscriptions");
+            if (Files.isDirectory(shardDir)) {
+                try (Stream<Path> files = Files.list(shardDir)) {
+                    for (Path shardFile : files.filter(path -> path.getFileName().toString().matches("shard-\\d+\\.json")).sorted().toList()) {
+                        List<Subscription> subscriptions = codec.decodeSubscriptions(shardFile.toFile());
+                        if (convert(shardFile, target, codec.encodeSubscriptions(subscriptions, target))) {
+                            // 바이너리 사본은 원본 스냅샷 크기/시각으로 최신 여부를 판단하므로 지워 두면 컴팩션 때 다시 만들어짐
+                            String shardName = shardFile.getFileName().toString().replaceAll("\\.json$", "");
+                            for (long generation : BinarySnapshot.generations(shardDir, shardName)) {
+                                Files.deleteIfExists(BinarySnapshot.file(shardDir, shardName, generation));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 파일을 새 내용으로 교체 (이미 대상 형식이면 건너뜀)
+     */
+    private static boolean convert(Path file, DataFileEncoding target, byte[] content) throws IOException {
+        File source = file.toFile();
+        DataFileEncoding current = JsonCodec.detectEncoding(source);
+        long before = source.length();
+        // 들여쓰기 여부는 내용으로 구분하지 않으므로 JSON 끼리는 항상 다시 씀
+        if (current.getFormat() != DataFileFormat.JSON && current.toString().equals(target.toString())) {
+            System.out.printf("%-40s 이미 %s 형식 (%,d bytes)%n", file, target, before);
+            return false;
+        }
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, content);
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.printf("%-40s %s -> %s : %,d -> %,d bytes%n", file, current, target, before, content.length);
+        return true;
+    }
+}
@@ -0,0 +1,145 @@
+package com.smartsubscription.tool;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import com.smartsubscription.model.Subscription;
+import com.smartsubscription.service.JsonCodec;
+import com.smartsubscription.service.SubscriptionStreamReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * readUserSubscriptions 읽기 방식 비교 벤치마크
+ * 
+ * 생성한 데이터셋에서 한 사용자의 구독을 찾는 방식들을 비교한다.
+ * - 기존 방식: 파일 전체를 List&lt;Map&gt; 으로 역직렬화한 뒤 userId 로 거름
+ * - 타입 바인딩: 캐시한 ObjectReader 로 List&lt;Subscription&gt; 으로 역직렬화한 뒤 거름 (Blackbird 유무)
+ * - 스트리밍 방식: SubscriptionStreamReader 로 해당 사용자의 레코드만 만듦 (Map / Subscription)
+ * 
+ * 실행: java -cp target/smart-subscription-app-1.0.0.jar \
+ *         -Dloader.main=com.smartsubscription.tool.ReadUserSubscriptionsBenchmark \
+ *         org.springframework.boot.loader.launch.PropertiesLauncher [사용자 수] [사용자당 구독 수] [반복 횟수]
+ */
+public class ReadUserSubscriptionsBenchmark {
+    
+    public static void main(String[] args) throws IOException {
+        int users = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int perUser = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectReader mapReader = objectMapper.readerFor(Map.class);
+        ObjectReader typedListReader = JsonCodec.createObjectMapper(false).readerFor(new TypeReference<List<Subscription>>() {});
+        ObjectReader blackbirdListReader = JsonCodec.createObjectMapper(true).readerFor(new TypeReference<List<Subscription>>() {});
+        ObjectReader typedReader = new JsonCodec(false).subscriptionReader();
+        File file = Files.createTempFile("subscriptions-bench", ".json").toFile();
+        file.deleteOnExit();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, generate(users, perUser));
+        
+        long targetUserId = users / 2;
+        System.out.printf("데이터셋: 사용자 %d명 x 구독 %d건, 파일 %,d bytes, 반복 %d회%n",
+            users, perUser, file.length(), iterations);
+        
+        // JIT 예열
+        for (int i = 0; i < 5; i++) {
+            readAndFilter(objectMapper, file, targetUserId);
+            readTypedAndFilter(typedListReader, file, targetUserId);
+            readTypedAndFilter(blackbirdListReader, file, targetUserId);
+            SubscriptionStreamReader.readUserRecords(mapReader, file, targetUserId);
+            SubscriptionStreamReader.readUserRecords(typedReader, file, targetUserId);
+        }
+        
+        report("전체 역직렬화 후 필터", iterations, () -> readAndFilter(objectMapper, file, targetUserId).size());
+        report("타입 바인딩 후 필터", iterations, () -> readTypedAndFilter(typedListReader, file, targetUserId).size());
+        report("타입 바인딩(Blackbird)", iterations,
+            () -> readTypedAndFilter(blackbirdListReader, file, targetUserId).size());
+        report("스트리밍 토큰 필터", iterations,
+            () -> SubscriptionStreamReader.readUserRecords(mapReader, file, targetUserId).size());
+        report("스트리밍(타입 바인딩)", iterations,
+            () -> SubscriptionStreamReader.readUserRecords(typedReader, file, targetUserId).size());
+    }
+    
+    private interface Reader {
+        int read() throws IOException;
+    }
+    
+    private static void report(String name, int iterations, Reader reader) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < iterations; i++) {
+            found = reader.read();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        
+        System.out.printf("%-20s %8.2f ms/op %,14d bytes/op (레코드 %d건)%n",
+            name, elapsed / 1_000_000.0 / iterations, allocated / iterations, found);
+    }
+    
+    /**
+     * 기존 readUserSubscriptions 와 같은 방식: 전체 역직렬화 후 필터
+     */
+    private static List<Map<String, Object>> readAndFilter(ObjectMapper objectMapper, File file, long userId) throws IOException {
+        CollectionType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, Map.class);
+        List<Map<String, Object>> all = objectMapper.readValue(file, listType);
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> subscription : all) {
+            Object userIdObj = subscription.get("userId");
+            if (userIdObj != null && ((Number) userIdObj).longValue() == userId) {
+                result.add(subscription);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 캐시한 리더로 List&lt;Subscription&gt; 전체를 만든 뒤 필터
+     */
+    private static List<Subscription> readTypedAndFilter(ObjectReader listReader, File file, long userId) throws IOException {
+        List<Subscription> all = listReader.readValue(file);
+        List<Subscription> result = new ArrayList<>();
+        for (Subscription subscription : all) {
+            if (subscription.getUserId() != null && subscription.getUserId() == userId) {
+                result.add(subscription);
+            }
+        }
+        return result;
+    }
+    
+    static List<Map<String, Object>> generate(int users, int perUser) {
+        List<Map<String, Object>> subscriptions = new ArrayList<>(users * perUser);
+        long id = 1;
+        for (int user = 1; user <= users; user++) {
+            for (int i = 0; i < perUser; i++) {
+                Map<String, Object> subscription = new LinkedHashMap<>();
+                subscription.put("id", id++);
+                subscription.put("userId", user);
+                subscription.put("name", "서비스 " + i);
+                subscription.put("category", "entertainment");
+                subscription.put("amount", 9900 + i * 100);
+                subscription.put("currency", "KRW");
+                subscription.put("billingCycle", "monthly");
+                subscription.put("nextPaymentDate", "2026-01-15");
+                subscription.put("status", "active");
+                subscription.put("description", "벤치마크용 구독 데이터");
+                subscription.put("createdAt", "2024-01-01T10:00:00");
+                subscription.put("displayOrder", i);
+                subscriptions.add(subscription);
+            }
+        }
+        return subscriptions;
+    }
+}
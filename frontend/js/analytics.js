@@ -1,6 +1,11 @@
 class AnalyticsManager {
     constructor() {
         this.charts = {};
+        // 서버 분석 결과 (/subscriptions/analytics, /subscriptions/insights, 금액은 원화 환산)
+        this.analytics = null;
+        this.insights = null;
+        this.months = 12;
+        this.loadSequence = 0;
         this.init();
     }
 
@@ -47,18 +52,52 @@ class AnalyticsManager {
         }
     }
 
-    updateAnalytics() {
+    /**
+     * 서버에서 분석 요약과 절약 기회를 받아 둠 (구독 목록을 브라우저에서 다시 집계하지 않음)
+     * 늦게 도착한 이전 요청의 결과는 버리고, 받지 못하면 빈 데이터로 표시
+     */
+    async loadAnalytics(months = this.months) {
+        const sequence = ++this.loadSequence;
+        try {
+            const [analytics, insights] = await Promise.all([
+                apiManager.getAnalytics(months, 'KRW'),
+                apiManager.getInsights('KRW')
+            ]);
+            if (sequence !== this.loadSequence) {
+                return false;
+            }
+            this.analytics = analytics && analytics.success ? analytics : null;
+            this.insights = insights && insights.success ? insights : null;
+            this.months = months;
+            return true;
+        } catch (error) {
+            console.error('분석 데이터 로드 실패:', error);
+            if (sequence === this.loadSequence) {
+                this.analytics = null;
+                this.insights = null;
+            }
+            return sequence === this.loadSequence;
+        }
+    }
+
+    async updateAnalytics() {
         if (typeof Chart === 'undefined') {
             this.loadChartJS();
             return;
         }
         
+        if (!await this.loadAnalytics()) {
+            return;
+        }
         this.updateCategoryChart();
-        this.updateMonthlyChart();
+        this.renderMonthlyChart();
         this.updateAnalyticsSummary();
     }
 
-    updateCanvasCharts() {
+    async updateCanvasCharts() {
+        if (!this.analytics && !await this.loadAnalytics()) {
+            return;
+        }
         const categoryData = this.getCategoryData();
         if (canvasChartManager.initCanvas('categoryChartCanvas')) {
             canvasChartManager.drawDoughnutChart({
@@ -136,15 +175,22 @@ class AnalyticsManager {
         });
     }
 
+    // 월별 지출 추이 기간 변경 (서버에서 해당 기간의 추이를 다시 받음)
+    async updateMonthlyChart(months = 12) {
+        if (await this.loadAnalytics(months)) {
+            this.renderMonthlyChart();
+        }
+    }
+
     // 월별 지출 추이 차트
-    updateMonthlyChart(months = 12) {
+    renderMonthlyChart() {
         const ctx = document.getElementById('monthlyChart');
         if (!ctx) {
             console.error('monthlyChart 요소를 찾을 수 없습니다.');
             return;
         }
 
-        const monthlyData = this.getMonthlyData(months);
+        const monthlyData = this.getMonthlyData();
         
         // 기존 차트 제거
         if (this.charts.monthlyChart) {
@@ -235,16 +281,10 @@ class AnalyticsManager {
             'other': '#95a5a6'
         };
 
-        app.subscriptions
-            .filter(sub => sub.status === 'active')
-            .forEach(sub => {
-                if (!categories[sub.category]) {
-                    categories[sub.category] = 0;
-                }
-                // 환율이 적용된 금액 사용
-                const amount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                categories[sub.category] += amount;
-            });
+        // 활성 구독의 카테고리별 월 환산 금액 (원화 환산)
+        (this.analytics ? this.analytics.byCategory : []).forEach(group => {
+            categories[group.category] = Math.round(group.convertedMonthly || 0);
+        });
 
         // 데이터가 있는 카테고리만 필터링
         const filteredCategories = Object.keys(categories).filter(cat => categories[cat] > 0);
@@ -256,58 +296,16 @@ class AnalyticsManager {
         };
     }
 
-    // 월별 데이터 수집 (과거 데이터 시뮬레이션 포함)
-    getMonthlyData(months = 12) {
-        const monthlyTotals = {};
-        const currentDate = new Date();
-        
-        // 지정된 개월 수만큼 데이터 생성
-        for (let i = months - 1; i >= 0; i--) {
-            const date = new Date(currentDate.getFullYear(), currentDate.getMonth() - i, 1);
-            const monthKey = date.toISOString().substring(0, 7);
-            monthlyTotals[monthKey] = 0;
-        }
-
-        // 현재 활성 구독들의 총 금액 계산
-        const currentTotalAmount = app.subscriptions
-            .filter(sub => sub.status === 'active')
-            .reduce((total, sub) => {
-                const amount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                return total + amount;
-            }, 0);
-
-        // 각 월별로 다른 금액 시뮬레이션 (구독 추가/해지 시뮬레이션)
-        const monthKeys = Object.keys(monthlyTotals);
-        monthKeys.forEach((monthKey, index) => {
-            // 현재 월은 실제 금액
-            if (index === monthKeys.length - 1) {
-                monthlyTotals[monthKey] = currentTotalAmount;
-            } else {
-                // 과거 월들은 변화를 시뮬레이션
-                const monthsAgo = monthKeys.length - 1 - index;
-                
-                // 시드 기반 일관된 랜덤 생성 (같은 월에는 항상 같은 값)
-                const seed = monthsAgo * 7; // 월별로 다른 시드
-                const random = Math.sin(seed) * 0.3; // ±15% 변화
-                
-                // 시간이 지날수록 구독이 증가하는 추세 반영 (월마다 3% 증가)
-                const trendFactor = 1 - (monthsAgo * 0.03);
-                const randomFactor = 1 + random;
-                
-                // 최소값 보장 (현재 금액의 60% 이상)
-                const minAmount = currentTotalAmount * 0.6;
-                const calculatedAmount = currentTotalAmount * trendFactor * randomFactor;
-                
-                monthlyTotals[monthKey] = Math.max(minAmount, Math.round(calculatedAmount));
-            }
-        });
+    // 월별 데이터 (서버가 등록 월 기준으로 추정한 활성 구독 월 환산 금액, 원화 환산)
+    getMonthlyData() {
+        const series = this.analytics ? this.analytics.series : [];
 
-        const labels = Object.keys(monthlyTotals).map(key => {
-            const date = new Date(key + '-01');
-            return `${date.getFullYear()}년 ${date.getMonth() + 1}월`;
+        const labels = series.map(point => {
+            const [year, month] = point.month.split('-');
+            return `${year}년 ${parseInt(month, 10)}월`;
         });
 
-        const data = Object.values(monthlyTotals).map(amount => Math.round(amount));
+        const data = series.map(point => Math.round(point.convertedMonthly || 0));
         
         return {
             labels: labels,
@@ -323,57 +321,37 @@ class AnalyticsManager {
 
     // 분석 요약 생성
     generateSummary() {
-        const activeSubscriptions = app.subscriptions.filter(sub => sub.status === 'active');
-        
-        // 환율이 적용된 금액으로 계산
-        const totalMonthlyAmount = activeSubscriptions.reduce((sum, sub) => {
-            const amount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-            return sum + amount;
-        }, 0);
-        
-        const totalYearlyAmount = activeSubscriptions
-            .filter(sub => sub.billingCycle === 'yearly')
-            .reduce((sum, sub) => {
-                const amount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                return sum + amount;
-            }, 0);
+        const active = this.analytics ? this.analytics.active : null;
+        const totalSubscriptions = active ? active.count : 0;
+        const totalMonthlyAmount = active ? Math.round(active.convertedMonthly || 0) : 0;
+        const totalYearlyAmount = active ? Math.round(active.convertedYearly || 0) : 0;
 
         const categoryStats = this.getCategoryStats();
         const mostExpensiveCategory = this.getMostExpensiveCategory();
-        const savingsOpportunities = this.findSavingsOpportunities();
+        const savingsOpportunities = this.getSavingsOpportunities();
 
         return {
-            totalSubscriptions: activeSubscriptions.length,
+            totalSubscriptions,
             totalMonthlyAmount,
             totalYearlyAmount,
-            averageMonthlyPerSubscription: activeSubscriptions.length > 0 ? 
-                Math.round(totalMonthlyAmount / activeSubscriptions.length) : 0,
+            averageMonthlyPerSubscription: totalSubscriptions > 0 ? 
+                Math.round(totalMonthlyAmount / totalSubscriptions) : 0,
             categoryStats,
             mostExpensiveCategory,
             savingsOpportunities
         };
     }
 
-    // 카테고리별 통계
+    // 카테고리별 통계 (활성 구독 수, 월 환산 금액)
     getCategoryStats() {
         const categories = {};
         
-        app.subscriptions
-            .filter(sub => sub.status === 'active')
-            .forEach(sub => {
-                if (!categories[sub.category]) {
-                    categories[sub.category] = {
-                        count: 0,
-                        totalAmount: 0,
-                        subscriptions: []
-                    };
-                }
-                categories[sub.category].count++;
-                // 환율이 적용된 금액 사용
-                const amount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                categories[sub.category].totalAmount += amount;
-                categories[sub.category].subscriptions.push(sub);
-            });
+        (this.analytics ? this.analytics.byCategory : []).forEach(group => {
+            categories[group.category] = {
+                count: group.count,
+                totalAmount: Math.round(group.convertedMonthly || 0)
+            };
+        });
 
         return categories;
     }
@@ -398,126 +376,46 @@ class AnalyticsManager {
         return mostExpensive;
     }
 
-    // 절약 기회 찾기 (획기적이고 실용적인 기회들)
-    findSavingsOpportunities() {
+    // 절약 기회 (서버가 절약 금액 순으로 찾은 결과를 종류별 상위 몇 개만 카드로 변환)
+    getSavingsOpportunities() {
+        const limits = { duplicate: 2, yearly: 2, unused: 1, integration: 1 };
+        const shown = {};
         const opportunities = [];
-        const categoryStats = this.getCategoryStats();
-
-        // 1. 연간 결제 추천 (3개월 이상 구독 중인 서비스 우선)
-        const yearlyOpportunities = app.subscriptions
-            .filter(sub => sub.status === 'active' && sub.billingCycle === 'monthly')
-            .map(sub => {
-                const monthlyAmount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                const yearlyAmount = monthlyAmount * 12;
-                
-                // 실제 서비스별 연간 할인율 사용 (기본값 15%)
-                const discountRate = sub.yearlyDiscount || 0.15;
-                const potentialSavings = Math.round(yearlyAmount * discountRate);
-                const duration = this.getSubscriptionDuration(sub);
-                
-                return {
-                    type: 'yearly',
-                    subscription: sub,
-                    duration,
-                    message: `${sub.name} 연간 결제 변경`,
-                    potentialSavings,
-                    currentMonthly: monthlyAmount,
-                    yearlyAmount: Math.round(yearlyAmount * (1 - discountRate)),
-                    discountRate: Math.round(discountRate * 100), // 퍼센트로 표시용
-                    priority: duration >= 3 ? 'high' : 'medium' // 3개월 이상이면 높은 우선순위
-                };
-            })
-            .filter(opp => opp.potentialSavings > 5000) // 5천원 이상 절약 가능한 경우만
-            .sort((a, b) => {
-                // 우선순위: 3개월 이상 구독 > 절약 금액 높은 순
-                if (a.priority === 'high' && b.priority !== 'high') return -1;
-                if (b.priority === 'high' && a.priority !== 'high') return 1;
-                return b.potentialSavings - a.potentialSavings;
-            })
-            .slice(0, 2); // 상위 2개
-
-        opportunities.push(...yearlyOpportunities);
-
-        // 2. 미사용 구독 감지 (높은 금액이지만 사용하지 않을 가능성)
-        const expensiveUnusedOpportunities = app.subscriptions
-            .filter(sub => sub.status === 'active')
-            .map(sub => {
-                const monthlyAmount = sub.currency === 'KRW' ? sub.amount : (sub.krwAmount || sub.amount);
-                const duration = this.getSubscriptionDuration(sub);
-                
-                // 높은 금액이지만 짧은 기간이거나, 특정 카테고리는 미사용 가능성 높음
-                const isExpensive = monthlyAmount > 15000; // 1만5천원 이상
-                const isShortTerm = duration < 2; // 2개월 미만
-                const isUnusedCategory = ['productivity', 'ai', 'social'].includes(sub.category);
-                
-                if ((isExpensive && isShortTerm) || (isExpensive && isUnusedCategory)) {
-                    return {
-                        type: 'unused',
-                        subscription: sub,
-                        message: `${sub.name} 미사용 가능성`,
-                        potentialSavings: monthlyAmount * 12, // 연간 절약
-                        monthlyAmount,
-                        reason: isShortTerm ? '짧은 사용 기간' : '사용 빈도 낮은 카테고리'
-                    };
-                }
-                return null;
-            })
-            .filter(opp => opp !== null)
-            .sort((a, b) => b.potentialSavings - a.potentialSavings)
-            .slice(0, 1); // 상위 1개
-
-        opportunities.push(...expensiveUnusedOpportunities);
-
-        // 3. 카테고리 통합 기회 (같은 카테고리 내 비슷한 서비스들)
-        const integrationOpportunities = Object.keys(categoryStats)
-            .filter(category => categoryStats[category].count >= 2)
-            .map(category => {
-                const subs = categoryStats[category].subscriptions;
-                const totalAmount = categoryStats[category].totalAmount;
-                
-                // 비슷한 기능의 서비스들이 있는지 확인
-                const similarServices = this.findSimilarServices(subs);
-                if (similarServices.length >= 2) {
-                    const categoryName = this.getCategoryDisplayName(category);
-                    return {
-                        type: 'integration',
-                        category,
-                        categoryName,
-                        message: `${categoryName} 서비스 통합`,
-                        potentialSavings: Math.round(totalAmount * 0.4), // 40% 절약 가정
-                        subscriptions: similarServices.map(sub => sub.name),
-                        suggestion: this.getIntegrationSuggestion(category, similarServices)
-                    };
-                }
-                return null;
-            })
-            .filter(opp => opp !== null)
-            .sort((a, b) => b.potentialSavings - a.potentialSavings)
-            .slice(0, 1); // 상위 1개
 
-        opportunities.push(...integrationOpportunities);
+        (this.insights ? this.insights.opportunities : []).forEach(opp => {
+            shown[opp.type] = (shown[opp.type] || 0) + 1;
+            if (shown[opp.type] > (limits[opp.type] || 0)) {
+                return;
+            }
+            const names = opp.subscriptions.map(sub => sub.name);
+            const monthly = Math.round(opp.monthly || 0);
+            const potentialSavings = Math.round(opp.potentialSavings || 0);
+            const card = { type: opp.type, potentialSavings, reason: opp.reason, subscriptions: names };
+
+            if (opp.type === 'yearly') {
+                const yearlyAmount = monthly * 12;
+                card.message = `${names[0]} 연간 결제 변경`;
+                card.currentMonthly = monthly;
+                card.yearlyAmount = yearlyAmount - potentialSavings;
+                card.discountRate = yearlyAmount > 0 ? Math.round(potentialSavings / yearlyAmount * 100) : 0;
+            } else if (opp.type === 'unused') {
+                card.message = `${names[0]} 미사용 가능성`;
+                card.monthlyAmount = monthly;
+            } else if (opp.type === 'integration') {
+                card.categoryName = this.getCategoryDisplayName(opp.key);
+                card.message = `${card.categoryName} 서비스 통합`;
+                card.suggestion = this.getIntegrationSuggestion(opp.key);
+            } else {
+                card.message = `${names[0]} 중복 구독`;
+            }
+            opportunities.push(card);
+        });
 
         return opportunities;
     }
 
-    // 비슷한 서비스 찾기
-    findSimilarServices(subscriptions) {
-        // 간단한 유사성 검사 (실제로는 더 복잡한 로직 가능)
-        const entertainmentServices = subscriptions.filter(sub => 
-            ['entertainment', 'music'].includes(sub.category)
-        );
-        const productivityServices = subscriptions.filter(sub => 
-            ['productivity', 'ai'].includes(sub.category)
-        );
-        
-        if (entertainmentServices.length >= 2) return entertainmentServices;
-        if (productivityServices.length >= 2) return productivityServices;
-        
-        return subscriptions.slice(0, 2); // 기본적으로 상위 2개
-    }
-
     // 통합 제안 메시지 생성
-    getIntegrationSuggestion(category, subscriptions) {
+    getIntegrationSuggestion(category) {
         const suggestions = {
             'entertainment': '하나의 통합 엔터테인먼트 서비스로 대체',
             'music': '음악 스트리밍 서비스 하나로 통합',
@@ -621,6 +519,7 @@ class AnalyticsManager {
                                     case 'yearly': return '연간 결제';
                                     case 'unused': return '미사용 구독';
                                     case 'integration': return '서비스 통합';
+                                    case 'duplicate': return '중복 구독';
                                     default: return '절약 기회';
                                 }
                             };
@@ -630,6 +529,7 @@ class AnalyticsManager {
                                     case 'yearly': return 'fas fa-calendar-alt';
                                     case 'unused': return 'fas fa-exclamation-triangle';
                                     case 'integration': return 'fas fa-compress-alt';
+                                    case 'duplicate': return 'fas fa-clone';
                                     default: return 'fas fa-lightbulb';
                                 }
                             };
@@ -684,6 +584,17 @@ class AnalyticsManager {
                                                     <span class="suggestion">${opp.suggestion}</span>
                                                 </div>
                                             </div>
+                                        ` : opp.type === 'duplicate' ? `
+                                            <div class="integration-info">
+                                                <div class="info-item">
+                                                    <span class="label">중복 대상:</span>
+                                                    <span class="services">${opp.subscriptions.join(', ')}</span>
+                                                </div>
+                                                <div class="info-item">
+                                                    <span class="label">사유:</span>
+                                                    <span class="reason">${opp.reason}</span>
+                                                </div>
+                                            </div>
                                         ` : ''}
                                         <div class="savings-amount">절약 가능: ₩${opp.potentialSavings.toLocaleString()}</div>
                                     </div>
@@ -736,7 +647,7 @@ class AnalyticsManager {
 
     // 지출 트렌드 분석
     analyzeSpendingTrend() {
-        const monthlyData = this.getMonthlyData(12);
+        const monthlyData = this.getMonthlyData();
         const data = monthlyData.data;
         
         if (data.length < 2) return 'insufficient_data';
@@ -762,8 +673,10 @@ class AnalyticsManager {
 
     // 구독 트렌드 분석
     analyzeSubscriptionTrend() {
-        const activeCount = app.subscriptions.filter(sub => sub.status === 'active').length;
-        const cancelledCount = app.subscriptions.filter(sub => sub.status === 'cancelled').length;
+        const byStatus = this.analytics ? this.analytics.byStatus : [];
+        const countOf = status => (byStatus.find(group => group.status === status) || { count: 0 }).count;
+        const activeCount = countOf('active');
+        const cancelledCount = countOf('cancelled');
         
         return {
             active: activeCount,
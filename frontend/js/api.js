@@ -84,6 +84,17 @@ class APIManager {
         });
     }
 
+    // 바뀐 필드만 보내는 부분 수정 (JSON Merge Patch, null 이면 해당 필드 삭제)
+    async patchSubscription(id, patch) {
+        return await this.request(`/subscriptions/${id}`, {
+            method: 'PATCH',
+            headers: {
+                'Content-Type': 'application/merge-patch+json'
+            },
+            body: JSON.stringify(patch)
+        });
+    }
+
     async deleteSubscription(id) {
         return await this.request(`/subscriptions/${id}`, {
             method: 'DELETE'
@@ -96,6 +107,33 @@ class APIManager {
         });
     }
 
+    // 구독 변경 스트림 (SSE, 재연결 시 브라우저가 Last-Event-ID 를 자동으로 보냄)
+    openSubscriptionStream(lastEventId = null) {
+        const query = lastEventId ? `?lastEventId=${encodeURIComponent(lastEventId)}` : '';
+        return new EventSource(`${this.baseURL}/subscriptions/stream${query}`, { withCredentials: true });
+    }
+
+    // 결제 달력 ([from, to) 기간의 결제 예정일, 결제 주기 반복 포함, 날짜는 YYYY-MM-DD, 남은 결제가 있으면 nextFrom 부터 다시 요청)
+    async getPaymentCalendar(from, to) {
+        return await this.request(`/subscriptions/calendar?from=${from}&to=${to}`, {
+            method: 'GET'
+        });
+    }
+
+    // 분석 요약 (카테고리/결제 주기/상태별 월 환산 금액과 최근 months 개월 추이, converted* 는 currency 로 환산한 합계)
+    async getAnalytics(months = 12, currency = 'KRW') {
+        return await this.request(`/subscriptions/analytics?months=${months}&currency=${currency}`, {
+            method: 'GET'
+        });
+    }
+
+    // 절약 기회 (중복 서비스, 카테고리 통합, 연간 결제 전환, 고가 구독, 금액은 currency 기준 연간 절약액)
+    async getInsights(currency = 'KRW') {
+        return await this.request(`/subscriptions/insights?currency=${currency}`, {
+            method: 'GET'
+        });
+    }
+
     async updateSubscriptionOrder(orderedIds) {
         return await this.request('/subscriptions/order', {
             method: 'PUT',
@@ -103,6 +141,14 @@ class APIManager {
         });
     }
 
+    // 한 건 위치 이동 (position: { afterId } 또는 { beforeId }, 옮긴 구독의 순서 키만 바뀜)
+    async moveSubscription(id, position) {
+        return await this.request(`/subscriptions/${id}/position`, {
+            method: 'PUT',
+            body: JSON.stringify(position)
+        });
+    }
+
     async fetchExchangeRates() {
         try {
             const response = await this.request('/exchange-rates', {
@@ -2,6 +2,8 @@
 class SmartSubscriptionApp {
     constructor() {
         this.subscriptions = [];
+        this.subscriptionStream = null;
+        this.lastSubscriptionEventId = null;
         this.currentUser = null;
         this.currentSection = 'dashboard';
         this.navClickHandler = null;
@@ -126,6 +128,8 @@ class SmartSubscriptionApp {
             return;
         }
         
+        // 목록을 읽는 사이의 변경도 놓치지 않도록 스트림을 먼저 연결
+        this.connectSubscriptionStream();
         await this.loadSubscriptionsFromBackend();
         this.loadExternalData();
         this.updateDashboard();
@@ -156,15 +160,7 @@ class SmartSubscriptionApp {
             const response = await apiManager.getSubscriptions();
             
             if (response && response.success && response.subscriptions) {
-                this.subscriptions = response.subscriptions.map(sub => {
-                    if (typeof sub.id === 'string') {
-                        sub.id = parseInt(sub.id);
-                    }
-                    if (typeof sub.amount === 'string') {
-                        sub.amount = parseFloat(sub.amount);
-                    }
-                    return sub;
-                });
+                this.subscriptions = response.subscriptions.map(sub => this.normalizeSubscription(sub));
                 
                 this.saveData();
             } else {
@@ -183,6 +179,105 @@ class SmartSubscriptionApp {
         }
     }
 
+    // 백엔드 응답 / 스트림 이벤트의 구독 항목 정규화
+    normalizeSubscription(sub) {
+        if (typeof sub.id === 'string') {
+            sub.id = parseInt(sub.id);
+        }
+        if (typeof sub.amount === 'string') {
+            sub.amount = parseFloat(sub.amount);
+        }
+        return sub;
+    }
+
+    // 구독 변경 스트림 연결: 추가/수정/삭제/순서 변경을 전체 목록 재조회 없이 반영
+    connectSubscriptionStream() {
+        this.disconnectSubscriptionStream();
+        if (typeof EventSource === 'undefined' || typeof apiManager === 'undefined' || !this.currentUser) {
+            return;
+        }
+
+        const stream = apiManager.openSubscriptionStream(this.lastSubscriptionEventId);
+        ['add', 'update', 'delete', 'reorder', 'reset'].forEach(type => {
+            stream.addEventListener(type, (event) => {
+                if (event.lastEventId) {
+                    this.lastSubscriptionEventId = event.lastEventId;
+                }
+                this.applySubscriptionEvent(type, JSON.parse(event.data || '{}'));
+            });
+        });
+        stream.onerror = () => {
+            // 일시적인 끊김은 브라우저가 다시 연결하고, 완전히 닫힌 경우(서버 재시작 등)만 직접 다시 연결
+            if (stream.readyState === EventSource.CLOSED && this.subscriptionStream === stream) {
+                this.subscriptionStream = null;
+                setTimeout(() => {
+                    if (this.currentUser && !this.subscriptionStream) {
+                        this.connectSubscriptionStream();
+                    }
+                }, 5000);
+            }
+        };
+        this.subscriptionStream = stream;
+    }
+
+    disconnectSubscriptionStream() {
+        if (this.subscriptionStream) {
+            this.subscriptionStream.close();
+            this.subscriptionStream = null;
+        }
+    }
+
+    // 스트림 이벤트 반영
+    applySubscriptionEvent(type, data) {
+        switch (type) {
+            case 'add':
+            case 'update':
+                this.upsertLocalSubscription(data.subscription);
+                break;
+            case 'delete':
+                this.removeLocalSubscription(data.id);
+                break;
+            case 'reorder':
+                // 순서 키가 바뀐 구독만 온다 (목록은 순서 키 순으로 그림)
+                (data.ranks || []).forEach(change => {
+                    const sub = this.subscriptions.find(existing => existing.id === change.id);
+                    if (sub && (sub.version || 0) <= (change.version || 0)) {
+                        sub.rank = change.rank;
+                        sub.version = change.version;
+                    }
+                });
+                break;
+            case 'reset':
+                // 놓친 변경이 버퍼에 남아 있지 않음: 전체 목록을 다시 읽음
+                this.refreshDashboard().then(() => this.updateSubscriptionsList());
+                return;
+            default:
+                return;
+        }
+
+        this.saveData();
+        this.updateDashboard();
+        this.updateSubscriptionsList();
+    }
+
+    // 로컬 목록에 구독 추가 또는 교체 (이미 더 최신 버전이 있으면 무시)
+    upsertLocalSubscription(sub) {
+        if (!sub) {
+            return;
+        }
+        sub = this.normalizeSubscription(sub);
+        const index = this.subscriptions.findIndex(existing => existing.id === sub.id);
+        if (index === -1) {
+            this.subscriptions.push(sub);
+        } else if ((this.subscriptions[index].version || 0) <= (sub.version || 0)) {
+            this.subscriptions[index] = sub;
+        }
+    }
+
+    removeLocalSubscription(id) {
+        this.subscriptions = this.subscriptions.filter(sub => sub.id !== id);
+    }
+
     loadFromLocalStorage() {
         const userKey = `subscriptions_${this.currentUser.id}`;
         const saved = localStorage.getItem(userKey);
@@ -641,6 +736,12 @@ class SmartSubscriptionApp {
         const activeSubs = this.subscriptions
             .filter(sub => sub.status === 'active')
             .sort((a, b) => {
+                // 순서 키가 있는 구독이 먼저, 키끼리는 문자열 순 (서버의 목록 순서와 같음)
+                if (a.rank || b.rank) {
+                    if (!a.rank) return 1;
+                    if (!b.rank) return -1;
+                    return a.rank < b.rank ? -1 : (a.rank > b.rank ? 1 : 0);
+                }
                 if (a.displayOrder !== undefined && b.displayOrder !== undefined) {
                     return a.displayOrder - b.displayOrder;
                 }
@@ -832,8 +933,10 @@ class SmartSubscriptionApp {
                 // 모달 닫기
                 this.hideModal();
                 
-                // 백엔드에서 최신 구독 목록을 다시 가져와서 대시보드 갱신
-                await this.refreshDashboard();
+                // 응답으로 받은 구독만 반영 (다른 탭/기기의 변경은 스트림으로 반영됨)
+                this.upsertLocalSubscription(response.subscription);
+                this.saveData();
+                this.updateDashboard();
                 
                 // 구독 목록 업데이트
                 this.updateSubscriptionsList();
@@ -950,16 +1053,30 @@ class SmartSubscriptionApp {
             paymentAccount: document.getElementById('editPaymentAccount').value
         };
 
+        // 바뀐 필드만 보냄 (version 은 충돌 확인용)
+        const patch = { version: subscription.version };
+        Object.keys(updateData).forEach(key => {
+            if (String(updateData[key] ?? '') !== String(subscription[key] ?? '')) {
+                patch[key] = updateData[key];
+            }
+        });
+        if (Object.keys(patch).length === 1) {
+            this.hideModal();
+            return;
+        }
+
         try {
             // 백엔드에 업데이트
-            const response = await apiManager.updateSubscription(id, updateData);
+            const response = await apiManager.patchSubscription(id, patch);
             
             if (response.success) {
                 // 모달 닫기
                 this.hideModal();
                 
-                // 백엔드에서 최신 구독 목록을 다시 가져와서 대시보드 갱신
-                await this.refreshDashboard();
+                // 응답으로 받은 구독만 반영 (다른 탭/기기의 변경은 스트림으로 반영됨)
+                this.upsertLocalSubscription(response.subscription);
+                this.saveData();
+                this.updateDashboard();
                 
                 // 구독 목록 업데이트
                 this.updateSubscriptionsList();
@@ -987,8 +1104,10 @@ class SmartSubscriptionApp {
                 const response = await apiManager.deleteSubscription(id);
                 
                 if (response.success) {
-                    // 백엔드에서 최신 구독 목록을 다시 가져와서 대시보드 갱신
-                    await this.refreshDashboard();
+                    // 삭제한 구독만 로컬 목록에서 제거
+                    this.removeLocalSubscription(id);
+                    this.saveData();
+                    this.updateDashboard();
                     
                     // 구독 목록 업데이트
                     this.updateSubscriptionsList();
@@ -337,6 +337,8 @@ class AuthManager {
         sessionStorage.removeItem('lastSection');
         
         if (typeof app !== 'undefined') {
+            app.disconnectSubscriptionStream();
+            app.lastSubscriptionEventId = null;
             app.currentSection = null;
             app.subscriptions = [];
             app.currentUser = null;
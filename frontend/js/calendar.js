@@ -2,9 +2,14 @@ class CalendarManager {
     constructor() {
         this.currentDate = new Date();
         this.payments = [];
+        // 서버에서 전개한 화면 기간의 결제 예정일 (occurrenceKey 기간, 받기 전에는 payments 사용)
+        this.occurrences = [];
+        this.occurrenceKey = null;
+        this.occurrenceWindow = null;
     }
 
     updateCalendar() {
+        this.occurrenceWindow = null;
         this.loadPayments();
         this.initializeYearSelect();
         this.renderCalendar();
@@ -121,6 +126,8 @@ class CalendarManager {
             startDate = new Date(startDateString);
         }
         
+        this.loadOccurrences(startDate);
+        
         let calendarHTML = '';
         
         // 요일 헤더
@@ -184,14 +191,66 @@ class CalendarManager {
         this.setupCalendarEvents();
     }
 
+    /**
+     * 화면에 보이는 6주 기간의 결제 예정일을 서버에서 받아옴 (결제 주기마다 반복되는 날짜 포함)
+     * 받은 뒤 달력을 다시 그리며, 받지 못하면 nextPaymentDate 만 표시
+     */
+    async loadOccurrences(startDate) {
+        const endDate = new Date(startDate);
+        endDate.setDate(startDate.getDate() + 42);
+        const windowKey = `${this.dateToString(startDate)}/${this.dateToString(endDate)}`;
+        
+        if (this.occurrenceWindow === windowKey) {
+            return;
+        }
+        this.occurrenceWindow = windowKey;
+        
+        try {
+            // 한 번에 다 받지 못하면 nextFrom 부터 이어서 받음
+            const received = [];
+            let from = this.dateToString(startDate);
+            while (from) {
+                const response = await apiManager.getPaymentCalendar(from, this.dateToString(endDate));
+                if (this.occurrenceWindow !== windowKey || !response.success) {
+                    return;
+                }
+                received.push(...response.occurrences);
+                from = response.nextFrom;
+            }
+            
+            const subscriptions = app && app.subscriptions ? app.subscriptions : [];
+            const krwAmounts = new Map(subscriptions.map(sub => [String(sub.id), sub.krwAmount]));
+            this.occurrences = received.map(occurrence => ({
+                id: occurrence.id,
+                name: occurrence.name,
+                amount: occurrence.amount || 0,
+                krwAmount: krwAmounts.get(String(occurrence.id)) || occurrence.amount || 0,
+                dateString: occurrence.date,
+                color: occurrence.color || '#1e88e5',
+                icon: occurrence.icon || 'fas fa-credit-card'
+            }));
+            this.occurrenceKey = windowKey;
+            this.renderCalendar();
+        } catch (error) {
+            console.error('결제 달력 로드 실패:', error);
+        }
+    }
+
+    /**
+     * 달력에 표시할 결제 목록 (현재 화면 기간을 서버에서 받았으면 그 결과)
+     */
+    getCalendarPayments() {
+        return this.occurrenceKey !== null && this.occurrenceKey === this.occurrenceWindow ? this.occurrences : this.payments;
+    }
+
     hasPaymentOnDate(dateString) {
         if (!dateString || dateString.length !== 10) return false;
-        return this.payments.some(p => p.dateString === dateString);
+        return this.getCalendarPayments().some(p => p.dateString === dateString);
     }
 
     getPaymentsOnDate(dateString) {
         if (!dateString || dateString.length !== 10) return [];
-        return this.payments.filter(p => p.dateString === dateString);
+        return this.getCalendarPayments().filter(p => p.dateString === dateString);
     }
 
     renderPaymentsList(payments) {
@@ -397,7 +456,7 @@ class CalendarManager {
         
         this.loadPayments();
         
-        const payments = this.payments.filter(payment => payment.dateString === dateString);
+        const payments = this.getPaymentsOnDate(dateString);
         
         if (payments.length === 0) {
             app.showNotification('이 날짜에는 결제 예정인 구독이 없습니다.', 'warning');
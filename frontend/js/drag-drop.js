@@ -133,8 +133,8 @@ class DragDropManager {
                 container.insertBefore(this.draggedElement, item.nextSibling);
             }
             
-            // 순서 업데이트를 Ajax로 저장
-            this.saveOrderToBackend();
+            // 옮긴 구독의 위치만 Ajax로 저장
+            this.saveMoveToBackend(this.draggedElement);
         }
         
         // 스타일 정리
@@ -152,51 +152,53 @@ class DragDropManager {
         this.dragOverElement = null;
     }
 
-    // Ajax를 통한 순서 저장
-    async saveOrderToBackend() {
-        const container = document.getElementById('allSubscriptions');
-        if (!container) return;
-        
-        const items = Array.from(container.querySelectorAll('.subscription-item'));
-        const orderedIds = items.map(item => {
-            // 구독 ID 추출 (버튼의 onclick에서 추출)
-            const editBtn = item.querySelector('button[onclick*="editSubscription"]');
-            if (editBtn) {
-                const onclick = editBtn.getAttribute('onclick');
-                const match = onclick.match(/editSubscription\((\d+)\)/);
-                if (match) {
-                    return parseInt(match[1]);
-                }
+    // 구독 항목의 ID 추출
+    getItemId(item) {
+        if (!item) return null;
+        // 구독 ID 추출 (버튼의 onclick에서 추출)
+        const editBtn = item.querySelector('button[onclick*="editSubscription"]');
+        if (editBtn) {
+            const onclick = editBtn.getAttribute('onclick');
+            const match = onclick.match(/editSubscription\((\d+)\)/);
+            if (match) {
+                return parseInt(match[1]);
             }
-            // 또는 data 속성에서 ID 추출 시도
-            const subscriptionId = item.dataset.subscriptionId;
-            if (subscriptionId) {
-                return parseInt(subscriptionId);
-            }
-            return null;
-        }).filter(id => id !== null);
-        
-        if (orderedIds.length === 0) {
+        }
+        // 또는 data 속성에서 ID 추출 시도
+        const subscriptionId = item.dataset.subscriptionId;
+        if (subscriptionId) {
+            return parseInt(subscriptionId);
+        }
+        return null;
+    }
+
+    // 바로 앞(없으면 바로 뒤) 구독을 기준으로 옮긴 위치 저장
+    async saveMoveToBackend(item) {
+        const id = this.getItemId(item);
+        if (id === null) {
             console.warn('저장할 구독 ID를 찾을 수 없습니다.');
             return;
         }
-        
+
+        // 화면에는 활성 구독만 보이므로 한쪽 이웃만 보냄 (숨은 구독 사이에 끼어도 보이는 순서는 같음)
+        const previous = item.previousElementSibling;
+        const next = item.nextElementSibling;
+        const afterId = previous && previous.classList.contains('subscription-item') ? this.getItemId(previous) : null;
+        const beforeId = next && next.classList.contains('subscription-item') ? this.getItemId(next) : null;
+        if (afterId === null && beforeId === null) {
+            return;
+        }
+        const position = afterId !== null ? { afterId } : { beforeId };
+
         try {
-            // 백엔드에 순서 저장 API 호출
-            const response = await apiManager.updateSubscriptionOrder(orderedIds);
-            
+            const response = await apiManager.moveSubscription(id, position);
+
             if (response.success) {
                 this.showOrderSavedFeedback();
-                
-                // 로컬 데이터도 업데이트
+
+                // 순서 키가 바뀐 구독만 로컬 데이터에 반영
                 if (typeof app !== 'undefined') {
-                    // displayOrder 업데이트
-                    orderedIds.forEach((id, index) => {
-                        const subscription = app.subscriptions.find(sub => sub.id === id);
-                        if (subscription) {
-                            subscription.displayOrder = index;
-                        }
-                    });
+                    (response.subscriptions || []).forEach(sub => app.upsertLocalSubscription(sub));
                     app.saveData();
                 }
             } else {
@@ -207,6 +209,8 @@ class DragDropManager {
             console.error('순서 저장 중 오류:', error);
             if (typeof app !== 'undefined') {
                 app.showNotification('순서 저장 중 오류가 발생했습니다.', 'error');
+                // 서버 순서로 되돌림
+                app.refreshDashboard().then(() => app.updateSubscriptionsList());
             }
         }
     }